@@ -0,0 +1,38 @@
+package com.dennis.interviews.elevators;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so every result comes with its allocation rate (bytes per
+ * operation) next to its throughput.  Accepts the usual JMH command-line options, e.g. a regular expression to pick
+ * the benchmarks, or "-p floors=100" to override a parameter.
+ *
+ * @author dennislin
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+        throw new RuntimeException("Should not instantiate utility class.");
+    }
+
+    /**
+     * Keeps whatever the simulation still logs at INFO level (e.g. the end of every simulation) out of the
+     * measurements.
+     */
+    static void quietLogging() {
+        LogManager.getRootLogger().setLevel(Level.WARN);
+    }
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
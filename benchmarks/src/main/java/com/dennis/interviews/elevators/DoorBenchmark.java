@@ -0,0 +1,100 @@
+package com.dennis.interviews.elevators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+/**
+ * Runs one elevator up and down a building in which every floor is crowded, so the doors open on every floor to
+ * drop off the riders from the floor before and board everyone waiting.  (NOTE:  In the same package as the engine,
+ * so the floor queues can be refilled directly)
+ *
+ * @author dennislin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoorBenchmark {
+    @Param({ "10", "50" })
+    private int floors;
+
+    @Param({ "1", "10", "50" })
+    private int ridersPerFloor;
+
+    private AbstractElevator elevator;
+    private Simulation simulation;
+    private PickupRequest[][] upRiders;
+    private PickupRequest[][] downRiders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkRunner.quietLogging();
+
+        elevator = new OpportunisticElevator("test");
+        elevator.setMaxFloor(floors);
+        elevator.setMaxWeight(Integer.MAX_VALUE);
+        elevator.setSpeed(1.0);
+        elevator.setPickupTimeRequired(0.0);
+        final List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(elevator);
+        simulation = new Simulation(listElevators, Collections.<PickupRequest>emptyIterator(), null);
+        simulation.setRetainServicedRequests(false);
+
+        //  Riders on the way up go to the next floor up, and riders on the way down to the next floor down.
+        upRiders = new PickupRequest[floors][ridersPerFloor];
+        downRiders = new PickupRequest[floors + 1][ridersPerFloor];
+        for (int floor = 1; floor < floors; floor++) {
+            for (int counter = 0; counter < ridersPerFloor; counter++) {
+                upRiders[floor][counter] = new PickupRequest(floor, 1, 0.0);
+                downRiders[floor][counter] = new PickupRequest(floor, -1, 0.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public AbstractElevator roundTrip() {
+        queueRiders(upRiders);
+        elevator.setTargetFloor(floors);
+        runUntilIdle();
+
+        queueRiders(downRiders);
+        elevator.setTargetFloor(0.0);
+        runUntilIdle();
+
+        return elevator;
+    }
+
+    private void queueRiders(final PickupRequest[][] riders) {
+        final FloorQueues floorQueues = simulation.getFloorQueues();
+        for (int floor = 1; floor < floors; floor++) {
+            for (int counter = 0; counter < ridersPerFloor; counter++) {
+                floorQueues.add(riders[floor][counter]);
+            }
+        }
+    }
+
+    private void runUntilIdle() {
+        while (AbstractElevator.State.IDLE != elevator.getState()) {
+            elevator.incrementTime(1.0);
+        }
+    }
+}
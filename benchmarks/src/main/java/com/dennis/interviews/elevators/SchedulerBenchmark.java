@@ -0,0 +1,85 @@
+package com.dennis.interviews.elevators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+/**
+ * Schedules a bank of idle elevators against riders waiting on most floors, i.e. the work every scheduler does each
+ * time an elevator becomes idle.  The elevators are made idle again after every operation, so each operation
+ * schedules the whole bank.
+ *
+ * @author dennislin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+    @Param({ "com.dennis.interviews.elevators.scheduler.GreedyScheduler",
+            "com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler",
+            "com.dennis.interviews.elevators.scheduler.LatencyOptimizingScheduler" })
+    private String scheduler;
+
+    @Param({ "10", "100", "1000" })
+    private int floors;
+
+    @Param({ "4", "16", "100" })
+    private int elevators;
+
+    private AbstractElevatorScheduler elevatorScheduler;
+    private Simulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        BenchmarkRunner.quietLogging();
+
+        final List<AbstractElevator> listElevators = new ArrayList<>();
+        for (int counter = 0; counter < elevators; counter++) {
+            final AbstractElevator elevator = new OpportunisticElevator(String.format("Elevator-%d", counter + 1));
+            elevator.setMaxFloor(floors);
+            elevator.setCurrentPosition((counter * floors) / elevators);
+            listElevators.add(elevator);
+        }
+
+        elevatorScheduler = (AbstractElevatorScheduler) Class.forName(scheduler).getDeclaredConstructor().newInstance();
+        simulation = new Simulation(listElevators, Collections.<PickupRequest>emptyIterator(), elevatorScheduler);
+
+        //  A rider on every other floor, so the schedulers have a choice to make.
+        final FloorQueues floorQueues = simulation.getFloorQueues();
+        for (int floor = 1; floor < floors; floor += 2) {
+            floorQueues.add(new PickupRequest(floor, (floor < floors / 2) ? 1 : -1, 0.0));
+        }
+    }
+
+    @Benchmark
+    public Simulation scheduleElevators() {
+        elevatorScheduler.scheduleElevators(0.0, 1.0);
+
+        for (AbstractElevator elevator : simulation.getElevators()) {
+            if (AbstractElevator.State.IDLE != elevator.getState()) {
+                elevator.setState(AbstractElevator.State.IDLE);
+            }
+        }
+
+        return simulation;
+    }
+}
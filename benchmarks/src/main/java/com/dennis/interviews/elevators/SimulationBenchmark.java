@@ -0,0 +1,74 @@
+package com.dennis.interviews.elevators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+
+/**
+ * Simulates an hour of traffic in buildings of different sizes, from creating the simulation until it finishes.
+ *
+ * @author dennislin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+    private static final double EXPERIMENT_DURATION_IN_SECONDS = 3600.0;
+    private static final long SEED = 42L;
+
+    @Param({ "10", "50" })
+    private int floors;
+
+    @Param({ "2", "8" })
+    private int elevators;
+
+    @Param({ "600", "6000" })
+    private double arrivalsPerHour;
+
+    @Param({ "NEXT_EVENT", "FIXED_INCREMENT" })
+    private Simulation.TimeAdvance timeAdvance;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkRunner.quietLogging();
+    }
+
+    @Benchmark
+    public Simulation simulate() {
+        final List<AbstractElevator> listElevators = new ArrayList<>();
+        for (int counter = 0; counter < elevators; counter++) {
+            final AbstractElevator elevator = new OpportunisticElevator(String.format("Elevator-%d", counter + 1));
+            elevator.setMaxFloor(floors);
+            listElevators.add(elevator);
+        }
+
+        final Simulation simulation = new Simulation(listElevators,
+                new RegularIntervalGenerator(0, floors, EXPERIMENT_DURATION_IN_SECONDS, SEED)
+                        .streamPickupRequests(arrivalsPerHour / 3600.0, EXPERIMENT_DURATION_IN_SECONDS),
+                new GreedyMinimizeEmptyElevatorScheduler());
+        simulation.setRetainServicedRequests(false);
+        simulation.simulate(timeAdvance);
+
+        return simulation;
+    }
+}
@@ -1,12 +1,16 @@
 package com.dennis.interviews.elevators;
 
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.dennis.interviews.elevators.recorder.EventRecorder;
+import com.dennis.interviews.elevators.recorder.EventType;
 
 /**
  * The base representation of an elevator.
@@ -14,8 +18,16 @@ import org.slf4j.LoggerFactory;
  * @author dennislin
  */
 public abstract class AbstractElevator {
-    private static final Logger LOG = LoggerFactory.getLogger(AbstractElevator.class);
     private static final double DELTA_ALLOWED = 0.0001;
+    /**
+     * Positions this close to a floor count as being on the floor, so rounding errors that accumulate while moving
+     * (e.g. ten increments of 0.1) can not delay a floor crossing until the next time increment.
+     */
+    private static final double POSITION_EPSILON = 1.0e-9;
+    /**
+     * Durations this close to each other count as equal, for the same reason as {@link #POSITION_EPSILON}.
+     */
+    protected static final double TIME_EPSILON = 1.0e-9;
 
     public static enum State {
         ASCENDING,
@@ -25,6 +37,7 @@ public abstract class AbstractElevator {
     }
 
     private final String name;
+    private int id = -1;
 
     private double minFloor = 0.0;
     private double maxFloor = 10.0;
@@ -37,9 +50,35 @@ public abstract class AbstractElevator {
     private State state = State.IDLE;
     private int maxWeight = 15;
     private int maxArea = 10;
-    private List<PickupRequest> listActiveRequests = new LinkedList<>();
-    private List<PickupRequest> listServicedRequests = new LinkedList<>();
+    /**
+     * The riders in the elevator (by their id in the {@link RiderStore}), bucketed by destination floor (index 0 is
+     * {@link #lowestDestination}), so riders can be dropped off without scanning everyone in the elevator.  The
+     * buckets are created the first time a floor is used and then reused, so riding the elevator does not allocate.
+     */
+    private PickupRequestQueue[] ridersByDestination = new PickupRequestQueue[0];
+    private int lowestDestination = 0;
+    private int numberOfRiders = 0;
+    private int[] servicedRiders = new int[0];
+    private int numberOfServicedRiders = 0;
     private Simulation simulation = null;
+    /**
+     * Where the riders are kept while the elevator is not part of a simulation (e.g. in tests).
+     */
+    private RiderStore ownRiders = null;
+
+    /**
+     * With a {@link Simulation.Clock#FIXED_POINT fixed point clock} the clock, the position and the speed are kept in
+     * integer milliseconds and millifloors only (the doubles above are left alone, and the getters convert the integers
+     * whenever they are asked), so stepping the elevator never converts anything.  The position is
+     * measured from where the current leg of motion started (the last floor reached, or wherever the elevator was
+     * put), so it is always computed from the time elapsed in a single step and rounding can never accumulate.
+     */
+    private boolean fixedPoint = false;
+    private long speedMillifloorsPerSecond = 0L;
+    private long legStartMillifloors = 0L;
+    private long legElapsedMillis = 0L;
+    private long timeInCurrentStateMillis = 0L;
+    private long currentTimestampMillis = 0L;
 
     @SuppressWarnings("unused")
     private AbstractElevator() {
@@ -57,6 +96,11 @@ public abstract class AbstractElevator {
      * @param newSimulation the simulation that this elevator is associated with
      */
     void setSimulation(Simulation newSimulation) {
+        if ((0 != numberOfRiders) || (0 != numberOfServicedRiders)) {
+            throw new IllegalStateException(
+                    String.format("Elevator(%s) already has riders, so it can not join a simulation.", name));
+        }
+
         simulation = newSimulation;
     }
 
@@ -64,6 +108,58 @@ public abstract class AbstractElevator {
         return simulation;
     }
 
+    /**
+     * Switches the elevator between a floating point and a fixed point clock.  Switching to fixed point rounds the
+     * clock to the nearest millisecond, and the position and speed to the nearest millifloor.  (NOTE:  Package
+     * visibility so only the simulation can set this value)
+     *
+     * @param newFixedPoint true to keep time in integer milliseconds and position in integer millifloors
+     */
+    void setFixedPoint(final boolean newFixedPoint) {
+        if (newFixedPoint) {
+            speedMillifloorsPerSecond = FixedPoint.toMillifloors(speed);
+            startLeg(FixedPoint.toMillifloors(currentPosition));
+            timeInCurrentStateMillis = FixedPoint.toMillis(timeInCurrentState);
+            currentTimestampMillis = FixedPoint.toMillis(currentTimestamp);
+        } else if (fixedPoint) {
+            //  The doubles were not kept up to date, so they have to catch up with the integers.
+            speed = getSpeed();
+            currentPosition = getCurrentPosition();
+            timeInCurrentState = getTimeInCurrentState();
+            currentTimestamp = getCurrentTimestamp();
+        }
+        fixedPoint = newFixedPoint;
+    }
+
+    /**
+     * @return true if the elevator keeps time in integer milliseconds and position in integer millifloors
+     */
+    public final boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    /**
+     * Sets the id of this elevator, i.e. its index in the simulation.  (NOTE:  Package visibility so only the
+     * simulation can set this value)
+     *
+     * @param newId the id of this elevator
+     */
+    void setId(final int newId) {
+        id = newId;
+    }
+
+    /**
+     * @return the index of this elevator in its simulation (used to identify it in traces), or -1 if it is not part
+     *         of a simulation
+     */
+    public final int getId() {
+        return id;
+    }
+
+    private EventRecorder getEventRecorder() {
+        return (null == simulation) ? null : simulation.getEventRecorder();
+    }
+
     public double getMinFloor() {
         return minFloor;
     }
@@ -81,21 +177,13 @@ public abstract class AbstractElevator {
     }
 
     public void setTargetFloor(final double newTargetFloor) {
-        if (newTargetFloor < minFloor) {
-            throw new IllegalArgumentException(
-                    String.format("Attempted to target floor of Elevator(%s) to %f.  Min floor is $f",
-                            name, newTargetFloor, minFloor));
-        } else if (newTargetFloor > maxFloor) {
-            throw new IllegalArgumentException(
-                    String.format("Attempted to target floor of Elevator(%s) to %f.  Max floor is $f",
-                            name, newTargetFloor, maxFloor));
-        }
+        checkTargetFloor(newTargetFloor);
 
         if (State.IDLE == state) {
-            if (newTargetFloor > currentPosition) {
-                state = State.ASCENDING;
+            if (newTargetFloor > getCurrentPosition()) {
+                changeState(State.ASCENDING);
             } else {
-                state = State.DESCENDING;
+                changeState(State.DESCENDING);
             }
 
             targetFloor = newTargetFloor;
@@ -110,12 +198,24 @@ public abstract class AbstractElevator {
         }
     }
 
+    private void checkTargetFloor(final double newTargetFloor) {
+        if (newTargetFloor < minFloor) {
+            throw new IllegalArgumentException(
+                    String.format("Attempted to target floor of Elevator(%s) to %f.  Min floor is $f",
+                            name, newTargetFloor, minFloor));
+        } else if (newTargetFloor > maxFloor) {
+            throw new IllegalArgumentException(
+                    String.format("Attempted to target floor of Elevator(%s) to %f.  Max floor is $f",
+                            name, newTargetFloor, maxFloor));
+        }
+    }
+
     public static final boolean didCrossFloorAscending(final double currentPosition, final double speed,
             final double timeIncrement) {
         final double distanceToTravel = timeIncrement * speed;
         final double newPosition = currentPosition + distanceToTravel;
         final double oldFloor = Math.floor(currentPosition);
-        final double nextFloor = Math.floor(newPosition);
+        final double nextFloor = Math.floor(newPosition + POSITION_EPSILON);
 
         return Math.abs(nextFloor - oldFloor) > DELTA_ALLOWED;
     }
@@ -125,7 +225,7 @@ public abstract class AbstractElevator {
         final double distanceToTravel = timeIncrement * speed;
         final double newPosition = currentPosition + distanceToTravel;
         final double oldFloor = Math.floor(currentPosition);
-        final double nextFloor = Math.floor(newPosition);
+        final double nextFloor = Math.floor(newPosition + POSITION_EPSILON);
 
         if (Math.abs(nextFloor - oldFloor) < DELTA_ALLOWED) {
             return Double.NaN;
@@ -139,7 +239,7 @@ public abstract class AbstractElevator {
         final double distanceToTravel = timeIncrement * speed;
         final double newPosition = currentPosition - distanceToTravel;
         final double oldFloor = Math.ceil(currentPosition);
-        final double nextFloor = Math.ceil(newPosition);
+        final double nextFloor = Math.ceil(newPosition - POSITION_EPSILON);
 
         return Math.abs(nextFloor - oldFloor) > DELTA_ALLOWED;
     }
@@ -149,7 +249,7 @@ public abstract class AbstractElevator {
         final double distanceToTravel = timeIncrement * speed;
         final double newPosition = currentPosition - distanceToTravel;
         final double oldFloor = Math.ceil(currentPosition);
-        final double nextFloor = Math.ceil(newPosition);
+        final double nextFloor = Math.ceil(newPosition - POSITION_EPSILON);
 
         if (Math.abs(nextFloor - oldFloor) < DELTA_ALLOWED) {
             return Double.NaN;
@@ -172,11 +272,61 @@ public abstract class AbstractElevator {
     }
 
     public double getCurrentPosition() {
-        return currentPosition;
+        return fixedPoint ? FixedPoint.toFloors(getPositionMillifloors()) : currentPosition;
     }
 
     public void setCurrentPosition(double currentPosition) {
-        this.currentPosition = currentPosition;
+        if (fixedPoint) {
+            startLeg(FixedPoint.toMillifloors(currentPosition));
+        } else {
+            this.currentPosition = currentPosition;
+        }
+    }
+
+    /**
+     * Starts a new leg of motion from the given position.  (Fixed point clock only)
+     *
+     * @param positionMillifloors the position the leg starts from
+     */
+    private void startLeg(final long positionMillifloors) {
+        legStartMillifloors = positionMillifloors;
+        legElapsedMillis = 0L;
+    }
+
+    /**
+     * @return the position of the elevator, from the start of the current leg and the time spent moving since
+     *         (fixed point clock only)
+     */
+    private long getPositionMillifloors() {
+        final long distanceTravelled = legElapsedMillis * speedMillifloorsPerSecond / FixedPoint.MILLIS_PER_SECOND;
+        return (State.DESCENDING == state) ? legStartMillifloors - distanceTravelled
+                : legStartMillifloors + distanceTravelled;
+    }
+
+    /**
+     * @return the next floor in the direction the elevator is moving (fixed point clock only)
+     */
+    private long getNextFloorMillifloors() {
+        final long position = getPositionMillifloors();
+        if (State.ASCENDING == state) {
+            return (Math.floorDiv(position, FixedPoint.MILLIFLOORS_PER_FLOOR) + 1L) * FixedPoint.MILLIFLOORS_PER_FLOOR;
+        }
+
+        return -(Math.floorDiv(-position, FixedPoint.MILLIFLOORS_PER_FLOOR) + 1L) * FixedPoint.MILLIFLOORS_PER_FLOOR;
+    }
+
+    /**
+     * @param nextFloorMillifloors the next floor in the direction the elevator is moving
+     * @return the number of milliseconds until the elevator reaches the floor, rounded up, or {@link Long#MAX_VALUE}
+     *         if it is not moving at all (fixed point clock only)
+     */
+    private long getMillisUntilFloor(final long nextFloorMillifloors) {
+        if (speedMillifloorsPerSecond <= 0L) {
+            return Long.MAX_VALUE;
+        }
+
+        final long legDistance = Math.abs(nextFloorMillifloors - legStartMillifloors) * FixedPoint.MILLIS_PER_SECOND;
+        return (legDistance + speedMillifloorsPerSecond - 1L) / speedMillifloorsPerSecond - legElapsedMillis;
     }
 
     public final int getMaxWeight() {
@@ -205,11 +355,31 @@ public abstract class AbstractElevator {
             throw new IllegalArgumentException("Attempted to set elevator with same state");
         }
 
-        LOG.info("Elevator({}) changed state from {}({}) to {} at timestamp={}",
-                new Object[] { name, this.state, timeInCurrentState, state, currentTimestamp });
+        final EventRecorder eventRecorder = getEventRecorder();
+        if (null != eventRecorder) {
+            eventRecorder.record(getCurrentTimestamp(), id, EventType.STATE_CHANGE, this.state.ordinal(),
+                    state.ordinal(), getCurrentPosition(), getTimeInCurrentState());
+        }
 
-        this.state = state;
-        timeInCurrentState = 0.0;
+        changeState(state);
+        setTimeInCurrentState(0.0);
+    }
+
+    /**
+     * Every state change goes through here, so the simulation can keep track of which elevators are idle.
+     *
+     * @param newState the new state of the elevator
+     */
+    private void changeState(final State newState) {
+        final State oldState = state;
+        if (fixedPoint) {
+            //  The leg is measured in the direction of the old state, so it has to end here.
+            startLeg(getPositionMillifloors());
+        }
+        state = newState;
+        if (null != simulation) {
+            simulation.onElevatorStateChanged(this, oldState, newState);
+        }
     }
 
     public final String getName() {
@@ -217,11 +387,16 @@ public abstract class AbstractElevator {
     }
 
     public final void setSpeed(final double newSpeed) {
-        speed = newSpeed;
+        if (fixedPoint) {
+            startLeg(getPositionMillifloors());
+            speedMillifloorsPerSecond = FixedPoint.toMillifloors(newSpeed);
+        } else {
+            speed = newSpeed;
+        }
     }
 
     public final double getSpeed() {
-        return speed;
+        return fixedPoint ? FixedPoint.toFloors(speedMillifloorsPerSecond) : speed;
     }
 
     public final State getState() {
@@ -229,226 +404,552 @@ public abstract class AbstractElevator {
     }
 
     public final void setTimeInCurrentState(double newTimeInCurrentState) {
-        timeInCurrentState = newTimeInCurrentState;
+        if (fixedPoint) {
+            timeInCurrentStateMillis = FixedPoint.toMillis(newTimeInCurrentState);
+        } else {
+            timeInCurrentState = newTimeInCurrentState;
+        }
     }
 
     public final void incrementTimeInCurrentState(double increment) {
-        timeInCurrentState += increment;
-        currentTimestamp += increment;
+        if (fixedPoint) {
+            incrementTimeInCurrentStateMillis(FixedPoint.toMillis(increment));
+        } else {
+            timeInCurrentState += increment;
+            currentTimestamp += increment;
+        }
+    }
+
+    private void incrementTimeInCurrentStateMillis(final long increment) {
+        timeInCurrentStateMillis += increment;
+        currentTimestampMillis += increment;
     }
 
     public final double getTimeInCurrentState() {
-        return timeInCurrentState;
+        return fixedPoint ? FixedPoint.toSeconds(timeInCurrentStateMillis) : timeInCurrentState;
     }
 
     public final double getCurrentTimestamp() {
-        return currentTimestamp;
+        return fixedPoint ? FixedPoint.toSeconds(currentTimestampMillis) : currentTimestamp;
+    }
+
+    /**
+     * Calculates how long the elevator can run before something noteworthy happens to it, i.e. it crosses the next
+     * floor or finishes loading.  Idle elevators wait for the scheduler, so they never generate events of their own.
+     *
+     * @return the time until the next event, or {@link Double#POSITIVE_INFINITY} if there is none
+     */
+    public final double getTimeUntilNextEvent() {
+        if (fixedPoint) {
+            if ((State.ASCENDING == state) || (State.DESCENDING == state)) {
+                final long millisUntilFloor = getMillisUntilFloor(getNextFloorMillifloors());
+                return (Long.MAX_VALUE == millisUntilFloor) ? Double.POSITIVE_INFINITY
+                        : FixedPoint.toSeconds(millisUntilFloor);
+            } else if (State.LOADING == state) {
+                return FixedPoint.toSeconds(
+                        Math.max(0L, FixedPoint.toMillis(pickupTimeRequired) - timeInCurrentStateMillis));
+            }
+
+            return Double.POSITIVE_INFINITY;
+        }
+
+        if (State.ASCENDING == state) {
+            return (Math.floor(currentPosition) + 1.0 - currentPosition) / speed;
+        } else if (State.DESCENDING == state) {
+            return (currentPosition - Math.ceil(currentPosition) + 1.0) / speed;
+        } else if (State.LOADING == state) {
+            return Math.max(0.0, pickupTimeRequired - timeInCurrentState);
+        }
+
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return the store the riders of this elevator are kept in (the simulation's, if the elevator is part of one)
+     */
+    private RiderStore getRiders() {
+        if (null != simulation) {
+            return simulation.getRiderStore();
+        } else if (null == ownRiders) {
+            ownRiders = new RiderStore();
+        }
+
+        return ownRiders;
     }
 
     public void addPickupRequest(final PickupRequest pickupRequest) {
-        listActiveRequests.add(pickupRequest);
+        addRider(getRiders().add(pickupRequest));
+    }
+
+    private void addRider(final int riderId) {
+        getOrCreateRidersTo(getRiders().getTargetFloor(riderId)).add(riderId);
+        numberOfRiders++;
     }
 
     /**
-     * Will advance the simulation of this elevator by a given amount of time.  Internally, this may be a
-     * recursive call as it transitions the elevator through each state, decreasing the total amount of time
-     * left before transitioning into a new state and repeating until it settles in an end state.
+     * Keeps a rider who was dropped off, for {@link #getServicedRequests()}.  (NOTE:  Package visibility so only the
+     * simulation can decide which riders are kept)
      *
-     * @param timeIncrement the amount of time to advance the simulation by
+     * @param riderId the rider
      */
-    public final void incrementTime(final double timeIncrement) {
-        LOG.info("Elevator({})::increment() ; - processing '{}' state at timeInCurrentState={}, with timeIncrement={}",
-                new Object[] {getName(), getState(), getTimeInCurrentState(), timeIncrement });
-        /**
-         * I hate switch statements -- easy to forget the terminating break statement.
-         */
-        if (State.ASCENDING == getState()) {
-            processStateAscending(timeIncrement);
-        } else if (State.DESCENDING == getState()) {
-            processStateDescending(timeIncrement);
-        } else if (State.LOADING == getState()) {
-            processStateLoading(timeIncrement);
-        } else if (State.IDLE == getState()) {
-            processStateIdle(timeIncrement);
-        } else {
-            throw new IllegalArgumentException("Elevator is in invalid or unhandled state: " + getState());
+    void addServicedRider(final int riderId) {
+        if (numberOfServicedRiders == servicedRiders.length) {
+            servicedRiders = Arrays.copyOf(servicedRiders, Math.max(16, servicedRiders.length * 2));
         }
+        servicedRiders[numberOfServicedRiders++] = riderId;
     }
 
     /**
-     * Common function for simulating an ascending elevator.
-     * @param timeIncrement the amount of time to advance the simulation by
+     * @param floor the destination floor
+     * @return the riders in the elevator who are getting off at the floor, or null if nobody ever rode to it
      */
-    private void processStateAscending(final double timeIncrement) {
-        final double distanceToTravel = timeIncrement * getSpeed();
-        final double newPosition = getCurrentPosition() + distanceToTravel;
-        final double nextFloor = Math.floor(newPosition);
+    private PickupRequestQueue getRidersTo(final int floor) {
+        final int index = floor - lowestDestination;
+        return ((index < 0) || (index >= ridersByDestination.length)) ? null : ridersByDestination[index];
+    }
+
+    private PickupRequestQueue getOrCreateRidersTo(final int floor) {
+        if (0 == ridersByDestination.length) {
+            lowestDestination = floor;
+            ridersByDestination = new PickupRequestQueue[1];
+        } else if (floor < lowestDestination) {
+            final PickupRequestQueue[] newRiders =
+                    new PickupRequestQueue[ridersByDestination.length + lowestDestination - floor];
+            System.arraycopy(ridersByDestination, 0, newRiders, lowestDestination - floor,
+                    ridersByDestination.length);
+            ridersByDestination = newRiders;
+            lowestDestination = floor;
+        } else if (floor - lowestDestination >= ridersByDestination.length) {
+            final PickupRequestQueue[] newRiders = new PickupRequestQueue[floor - lowestDestination + 1];
+            System.arraycopy(ridersByDestination, 0, newRiders, 0, ridersByDestination.length);
+            ridersByDestination = newRiders;
+        }
 
-        //  Never crossed a floor -- no special handling needed
-        if (!AbstractElevator.didCrossFloorAscending(getCurrentPosition(), getSpeed(), timeIncrement)) {
-            incrementTimeInCurrentState(timeIncrement);
-            setCurrentPosition(newPosition);
+        final int index = floor - lowestDestination;
+        if (null == ridersByDestination[index]) {
+            ridersByDestination[index] = new PickupRequestQueue();
+        }
+
+        return ridersByDestination[index];
+    }
+
+    /**
+     * Will advance the simulation of this elevator by a given amount of time.  The elevator is driven through its
+     * states in a loop:  each state handler spends as much of the increment as it can and hands back whatever is left
+     * once the elevator changes state, until the whole increment has been spent.  A state change always makes
+     * progress (e.g. the doors closing, or reaching a floor), so the loop is bounded by the number of stops the
+     * elevator makes within the increment.
+     *
+     * <p>With a fixed point clock the increment must be a whole number of milliseconds (see
+     * {@link #incrementTimeMillis(long)}).
+     *
+     * @param timeIncrement the amount of time to advance the simulation by
+     */
+    public final void incrementTime(final double timeIncrement) {
+        final EventRecorder eventRecorder = getEventRecorder();
+        if (null != eventRecorder) {
+            eventRecorder.record(getCurrentTimestamp(), id, EventType.TIME_INCREMENT, state.ordinal(),
+                    state.ordinal(), getCurrentPosition(), timeIncrement);
+        }
 
+        if (fixedPoint) {
+            incrementTimeMillis(FixedPoint.toWholeMillis(timeIncrement));
             return;
         }
 
-        //  We just crossed the a new floor!
-        //  1.  First calculate the time we crossed the floor and increment the timestamp of the elevator.
-        final double timeElapsedUntilCrossingFloors =
-                AbstractElevator.calculateElapsedTimeWhenCrossingFloorsAscending(
-                        getCurrentPosition(), getSpeed(), timeIncrement);
+        double timeRemaining = timeIncrement;
+        while (timeRemaining > 0.0) {
+            final State previousState = state;
+            /**
+             * I hate switch statements -- easy to forget the terminating break statement.
+             */
+            if ((State.ASCENDING == previousState) || (State.DESCENDING == previousState)) {
+                timeRemaining = processStateMoving(timeRemaining);
+            } else if (State.LOADING == previousState) {
+                timeRemaining = processStateLoading(timeRemaining);
+            } else if (State.IDLE == previousState) {
+                timeRemaining = processStateIdle(timeRemaining);
+            } else {
+                throw new IllegalArgumentException("Elevator is in invalid or unhandled state: " + previousState);
+            }
 
-        processStateAscendingCrossFloors(newPosition, nextFloor, timeIncrement, timeElapsedUntilCrossingFloors);
+            if ((timeRemaining > 0.0) && (previousState == state)) {
+                throw createNoProgressException(previousState, timeRemaining);
+            }
+        }
     }
 
     /**
-     * Simulates what an elevator would do as it crosses a floor when ascending (maybe open its doorsand let some
-     * passengers out?).
-     * @param newPosition the expected new position of the elevator at the end of the time increment
-     * @param nextFloor the floor that was crossed
-     * @param timeIncrement the amount of time to advance the simulation by
-     * @param timeElapsedUntilCrossingFloors the time elapsed when the floor will be crossed
+     * The fixed point version of {@link #incrementTime(double)}, which steps the elevator in integer milliseconds.
+     * Moving is handled in milliseconds throughout, and the time is only converted to seconds (and back) for the
+     * handlers of the subclasses.
+     *
+     * @param timeIncrement the number of milliseconds to advance the simulation by
      */
-    protected abstract void processStateAscendingCrossFloors(final double newPosition, final double nextFloor,
-            final double timeIncrement, final double timeElapsedUntilCrossingFloors);
+    private void incrementTimeMillis(final long timeIncrement) {
+        long timeRemaining = timeIncrement;
+        while (timeRemaining > 0L) {
+            final State previousState = state;
+            if ((State.ASCENDING == previousState) || (State.DESCENDING == previousState)) {
+                timeRemaining = processStateMovingMillis(timeRemaining);
+            } else if (State.LOADING == previousState) {
+                timeRemaining = FixedPoint.toMillis(processStateLoading(FixedPoint.toSeconds(timeRemaining)));
+            } else if (State.IDLE == previousState) {
+                timeRemaining = FixedPoint.toMillis(processStateIdle(FixedPoint.toSeconds(timeRemaining)));
+            } else {
+                throw new IllegalArgumentException("Elevator is in invalid or unhandled state: " + previousState);
+            }
+
+            if ((timeRemaining > 0L) && (previousState == state)) {
+                throw createNoProgressException(previousState, FixedPoint.toSeconds(timeRemaining));
+            }
+        }
+    }
 
+    private IllegalStateException createNoProgressException(final State previousState, final double timeRemaining) {
+        return new IllegalStateException(String.format("Elevator(%s) handed back %f of time without leaving state %s",
+                name, timeRemaining, previousState));
+    }
 
     /**
-     * Common function for simulating a descending elevator.
-     * @param timeIncrement the time to increment the simulation by
+     * Common function for simulating an ascending or descending elevator.  The time the elevator reaches each floor
+     * is computed in closed form, so a single increment can cross any number of floors:  the elevator is moved to
+     * each floor in turn (with its clock set to the exact time it gets there) and the floor is processed before
+     * moving on.
+     *
+     * @param timeIncrement the amount of time to advance the simulation by
+     * @return the time left over if the elevator stopped part way through the increment, otherwise 0
      */
-    private void processStateDescending(final double timeIncrement) {
-        final double distanceToTravel = timeIncrement * getSpeed();
-        final double newPosition = getCurrentPosition() - distanceToTravel;
-        final double nextFloor = Math.ceil(newPosition);
-
-        //  Never crossed a floor -- no special handling needed
-        if (!AbstractElevator.didCrossFloorDescending(getCurrentPosition(), getSpeed(), timeIncrement)) {
-            incrementTimeInCurrentState(timeIncrement);
-            setCurrentPosition(newPosition);
+    private double processStateMoving(final double timeIncrement) {
+        double timeRemaining = timeIncrement;
+        while ((State.ASCENDING == state) || (State.DESCENDING == state)) {
+            final boolean isAscending = State.ASCENDING == state;
+            final double nextFloor = isAscending ? Math.floor(currentPosition) + 1.0 : Math.ceil(currentPosition) - 1.0;
+            final double timeUntilNextFloor = Math.abs(nextFloor - currentPosition) / speed;
+
+            //  Never reaches the next floor -- no special handling needed
+            if (timeUntilNextFloor > timeRemaining + TIME_EPSILON) {
+                setCurrentPosition(currentPosition + (isAscending ? timeRemaining : -timeRemaining) * speed);
+                incrementTimeInCurrentState(timeRemaining);
+                return 0.0;
+            }
 
-            return;
+            //  We just reached a new floor!
+            final double timeElapsedUntilCrossingFloors = Math.min(timeUntilNextFloor, timeRemaining);
+            incrementTimeInCurrentState(timeElapsedUntilCrossingFloors);
+            timeRemaining -= timeElapsedUntilCrossingFloors;
+            setCurrentPosition(nextFloor);
+            if (isAscending) {
+                processStateAscendingCrossFloors(nextFloor);
+            } else {
+                processStateDescendingCrossFloors(nextFloor);
+            }
         }
 
-        //  We just crossed the a new floor!
-        //  1.  First calculate the time we crossed the floor and increment the timestamp of the elevator.
-        final double timeElapsedUntilCrossingFloors =
-                AbstractElevator.calculateElapsedTimeWhenCrossingFloorsDescending(
-                        getCurrentPosition(), getSpeed(), timeIncrement);
+        return timeRemaining;
+    }
+
+    /**
+     * The fixed point version of {@link #processStateMoving(double)}:  a floor is reached on the first millisecond at
+     * which the distance travelled in the current leg covers the distance to the floor, which is an exact integer
+     * comparison.
+     *
+     * @param timeIncrement the number of milliseconds to advance the simulation by
+     * @return the milliseconds left over if the elevator stopped part way through the increment, otherwise 0
+     */
+    private long processStateMovingMillis(final long timeIncrement) {
+        long timeRemaining = timeIncrement;
+        while ((State.ASCENDING == state) || (State.DESCENDING == state)) {
+            final long nextFloor = getNextFloorMillifloors();
+            final long timeUntilNextFloor = getMillisUntilFloor(nextFloor);
+
+            if (timeUntilNextFloor > timeRemaining) {
+                legElapsedMillis += timeRemaining;
+                incrementTimeInCurrentStateMillis(timeRemaining);
+                return 0L;
+            }
+
+            incrementTimeInCurrentStateMillis(timeUntilNextFloor);
+            timeRemaining -= timeUntilNextFloor;
+            startLeg(nextFloor);
+            if (State.ASCENDING == state) {
+                processStateAscendingCrossFloors(FixedPoint.toFloors(nextFloor));
+            } else {
+                processStateDescendingCrossFloors(FixedPoint.toFloors(nextFloor));
+            }
+        }
 
-        processStateDescendingCrossFloors(newPosition, nextFloor, timeIncrement, timeElapsedUntilCrossingFloors);
+        return timeRemaining;
     }
 
+    /**
+     * Simulates what an elevator would do as it crosses a floor when ascending (maybe open its doors and let some
+     * passengers out?).  The elevator is on the floor, and its clock is at the time it got there.  It keeps ascending
+     * unless its state is changed.
+     *
+     * @param nextFloor the floor that was crossed
+     */
+    protected abstract void processStateAscendingCrossFloors(final double nextFloor);
+
     /**
      * Simulates what an elevator would do as it crosses a floor when descending (maybe open its doors and let some
-     * passengers out?).
-     * @param newPosition the expected new position of the elevator at the end of the time increment
+     * passengers out?).  The elevator is on the floor, and its clock is at the time it got there.  It keeps
+     * descending unless its state is changed.
+     *
      * @param nextFloor the floor that was crossed
-     * @param timeIncrement the amount of time to advance the simulation by
-     * @param timeElapsedUntilCrossingFloors the time elapsed when the floor will be crossed
      */
-    protected abstract void processStateDescendingCrossFloors(final double newPosition, final double nextFloor,
-            final double timeIncrement, final double timeElapsedUntilCrossingFloors);
+    protected abstract void processStateDescendingCrossFloors(final double nextFloor);
 
     /**
      * Simulates what the elevator would do while it is waiting for passengers to enter/exit.
      * @param timeIncrement the amount of time to advance the simulation by
+     * @return the time left over after the elevator changed state (0 if it is still loading)
      */
-    protected abstract void processStateLoading(final double timeIncrement);
+    protected abstract double processStateLoading(final double timeIncrement);
 
     /**
      *  Simulates what the elevator would do if it finds itself in an idle state (maybe re-position itself?).
+     * @param timeIncrement the amount of time to advance the simulation by
+     * @return the time left over after the elevator changed state (0 if it is still idle)
      */
-    protected abstract void processStateIdle(final double timeIncrement);
+    protected abstract double processStateIdle(final double timeIncrement);
 
+    /**
+     * @return the number of riders in the elevator
+     */
+    public final int getNumberOfRiders() {
+        return numberOfRiders;
+    }
+
+    /**
+     * Lists the riders in the elevator, ordered by destination floor (meant for reporting and testing -- use
+     * {@link #getNumberOfRiders()} when only the count is needed).  Each rider is a copy, which is not updated as the
+     * rider moves on, unless the simulation {@link Simulation#setUpdatePickupRequests(boolean) updates the pickup
+     * requests}, in which case it is the request the rider arrived as.
+     *
+     * @return a read-only snapshot of the riders in the elevator
+     */
     public final List<PickupRequest> getActiveRequests() {
-        return listActiveRequests;
+        final RiderStore riderStore = getRiders();
+        final List<PickupRequest> listActiveRequests = new ArrayList<>(numberOfRiders);
+        for (PickupRequestQueue riders : ridersByDestination) {
+            for (int counter = 0; (null != riders) && (counter < riders.size()); counter++) {
+                listActiveRequests.add(riderStore.getPickupRequest(riders.get(counter)));
+            }
+        }
+
+        return Collections.unmodifiableList(listActiveRequests);
     }
 
+    /**
+     * The riders dropped off by this elevator, in the order they got off (unless the simulation does not retain
+     * them).  The riders are kept in the {@link RiderStore}, and each one is copied into a new request every time it
+     * is read, unless the simulation {@link Simulation#setUpdatePickupRequests(boolean) updates the pickup requests},
+     * in which case the request the rider arrived as is returned.
+     *
+     * @return a read-only view of the riders dropped off by this elevator
+     */
     public final List<PickupRequest> getServicedRequests() {
-        return listServicedRequests;
-    }
+        return new AbstractList<PickupRequest>() {
+            @Override
+            public PickupRequest get(final int index) {
+                if ((index < 0) || (index >= numberOfServicedRiders)) {
+                    throw new IndexOutOfBoundsException(String.format("Index %d is out of bounds for size %d", index,
+                            numberOfServicedRiders));
+                }
+
+                return getRiders().getPickupRequest(servicedRiders[index]);
+            }
 
+            @Override
+            public int size() {
+                return numberOfServicedRiders;
+            }
+        };
+    }
 
     /**
-     * Simulating the opening of elevator doors, i.e. passengers leaving and entering the elevator.
-     * @param newPosition the expected new position of the elevator at the end of the time increment
-     * @param nextFloor the floor that was crossed
-     * @param timeIncrement the amount of time to advance the simulation by
-     * @param timeElapsedUntilCrossingFloors the time elapsed when the floor will be crossed
+     * Writes the state of this elevator (position, motion, riders and the riders serviced so far) to a checkpoint.
+     * (NOTE:  Package visibility, since the format is private to the simulation)
+     *
+     * @param output the checkpoint being written
+     * @throws IOException if the checkpoint can not be written
      */
-    protected final void openElevatorDoors(final double newPosition, final double nextFloor,
-            final double timeIncrement, final double timeElapsedUntilCrossingFloors) {
-        final int iNextFloor = (int) nextFloor;
-        incrementTimeInCurrentState(timeElapsedUntilCrossingFloors);
-        final double timeInNewState = timeIncrement - timeElapsedUntilCrossingFloors;
-        final double timestampCrossingFloors = getCurrentTimestamp() + timeElapsedUntilCrossingFloors;
-        setCurrentPosition(nextFloor);
-
-        //  2.  First check to see if anybody is getting off on the new floor.
-        Set<PickupRequest> setDepartingRiders = new HashSet<>();
-        for (PickupRequest pickupRequest : getActiveRequests()) {
-            if (pickupRequest.getTargetFloor() == iNextFloor) {
-                setDepartingRiders.add(pickupRequest);
+    void writeState(final DataOutput output) throws IOException {
+        output.writeDouble(minFloor);
+        output.writeDouble(maxFloor);
+        output.writeDouble(targetFloor);
+        output.writeDouble(pickupTimeRequired);
+        output.writeDouble(getSpeed());
+        output.writeDouble(getCurrentPosition());
+        output.writeDouble(getTimeInCurrentState());
+        output.writeDouble(getCurrentTimestamp());
+        output.writeInt(state.ordinal());
+        output.writeInt(maxWeight);
+        output.writeInt(maxArea);
+        output.writeLong(legStartMillifloors);
+        output.writeLong(legElapsedMillis);
+
+        //  Riders are written in destination order, and in boarding order for each destination.
+        final RiderStore riderStore = getRiders();
+        output.writeInt(numberOfRiders);
+        for (PickupRequestQueue riders : ridersByDestination) {
+            for (int counter = 0; (null != riders) && (counter < riders.size()); counter++) {
+                riderStore.writeRider(riders.get(counter), output);
             }
         }
 
-        //  3.  Next, check to see if anybody wanted to get on the floor at the time.
-        List<PickupRequest> listPickupRequestsAtFloor = null;
-        if (null != getSimulation()) {
-            listPickupRequestsAtFloor = getSimulation().getMapActiveRequestsByFloor().get(iNextFloor);
+        output.writeInt(numberOfServicedRiders);
+        for (int counter = 0; counter < numberOfServicedRiders; counter++) {
+            riderStore.writeRider(servicedRiders[counter], output);
         }
+    }
 
-        Set<PickupRequest> newRiders = new HashSet<>();
-        while ((null != listPickupRequestsAtFloor) && !listPickupRequestsAtFloor.isEmpty()) {
-            if (getMaxWeight() <= getActiveRequests().size() + newRiders.size() - setDepartingRiders.size()) {
-                break;
-            }
-            PickupRequest pickupRequest = listPickupRequestsAtFloor.get(0);
-            if (pickupRequest.getTimestamp() < timestampCrossingFloors) {
-                pickupRequest = listPickupRequestsAtFloor.remove(0);
-                //  Pickup time is when the elevator doors has closed.
-                pickupRequest.setTimestampPickup(timestampCrossingFloors + getPickupTimeRequired());
-                newRiders.add(pickupRequest);
-            } else {
-                break;
-            }
+    /**
+     * Reads back the state written by {@link #writeState(DataOutput)}.  The state is set directly, without notifying
+     * the simulation, which is expected to catch up once every elevator has been read.
+     *
+     * @param input the checkpoint being read
+     * @throws IOException if the checkpoint can not be read
+     */
+    void readState(final DataInput input) throws IOException {
+        if ((0 != numberOfRiders) || (0 != numberOfServicedRiders)) {
+            throw new IllegalStateException(
+                    String.format("Can not restore Elevator(%s) -- it has already been used.", name));
         }
 
-        if (setDepartingRiders.isEmpty() && newRiders.isEmpty()) {
-            if ((State.ASCENDING == getState()) ? getTargetFloor() > nextFloor : getTargetFloor() < nextFloor) {
-                setCurrentPosition(newPosition);
-                incrementTimeInCurrentState(timeIncrement);
-            } else {
-                incrementTimeInCurrentState(timeElapsedUntilCrossingFloors);
+        minFloor = input.readDouble();
+        maxFloor = input.readDouble();
+        targetFloor = input.readDouble();
+        pickupTimeRequired = input.readDouble();
+        speed = input.readDouble();
+        currentPosition = input.readDouble();
+        timeInCurrentState = input.readDouble();
+        currentTimestamp = input.readDouble();
+        final int stateOrdinal = input.readInt();
+        if ((stateOrdinal < 0) || (stateOrdinal >= State.values().length)) {
+            throw new IOException(String.format("Invalid state %d for Elevator(%s)", stateOrdinal, name));
+        }
+        state = State.values()[stateOrdinal];
+        maxWeight = input.readInt();
+        maxArea = input.readInt();
+        final long savedLegStartMillifloors = input.readLong();
+        final long savedLegElapsedMillis = input.readLong();
+        if (fixedPoint) {
+            setFixedPoint(true);
+            legStartMillifloors = savedLegStartMillifloors;
+            legElapsedMillis = savedLegElapsedMillis;
+        }
+
+        final RiderStore riderStore = getRiders();
+        final int numberOfRidersToRead = input.readInt();
+        for (int counter = 0; counter < numberOfRidersToRead; counter++) {
+            addRider(riderStore.readRider(input));
+        }
+
+        final int numberOfServicedRequests = input.readInt();
+        for (int counter = 0; counter < numberOfServicedRequests; counter++) {
+            addServicedRider(riderStore.readRider(input));
+        }
+    }
+
+    /**
+     * @return how many of the riders waiting on the floor to go in the given direction can get on:  the ones who
+     *         arrived before the elevator did, as long as there is space for them
+     */
+    private int countBoardingRiders(final FloorQueues floorQueues, final int floor, final Direction direction,
+            final int freeSpace, final double timestampCrossingFloors) {
+        final PickupRequestQueue waitingRiders = (null == floorQueues) ? null : floorQueues.getQueue(floor, direction);
+        final RiderStore riders = getRiders();
+        int numberBoarding = 0;
+        while ((null != waitingRiders) && (numberBoarding < waitingRiders.size()) && (numberBoarding < freeSpace)
+                && (riders.getTimestamp(waitingRiders.get(numberBoarding)) < timestampCrossingFloors)) {
+            numberBoarding++;
+        }
 
-                setCurrentPosition(nextFloor);
+        return numberBoarding;
+    }
+
+    /**
+     * Simulating the opening of elevator doors, i.e. passengers leaving and entering the elevator, when the elevator
+     * reaches a floor.  Only the riders going the same way as the elevator get on, except at the end of its run:  an
+     * elevator that has been emptied turns around for the riders going the other way if nobody is going its way.  The
+     * elevator starts loading if anybody gets off or on, goes idle if the floor is its target, and otherwise keeps
+     * going.
+     *
+     * @param nextFloor the floor that was reached
+     */
+    protected final void openElevatorDoors(final double nextFloor) {
+        final int iNextFloor = (int) nextFloor;
+        final double timestampCrossingFloors = getCurrentTimestamp();
+        final RiderStore riders = getRiders();
+        if (null != getSimulation()) {
+            getSimulation().onElevatorReachedFloor(this, iNextFloor);
+        }
+
+        //  1.  First check to see if anybody is getting off on the new floor.
+        final PickupRequestQueue departingRiders = getRidersTo(iNextFloor);
+        final int numberDeparting = (null == departingRiders) ? 0 : departingRiders.size();
+
+        //  2.  Next, check to see if anybody going our way wanted to get on the floor at the time (they are boarded
+        //      after the departing riders have left, so only count them for now).
+        final boolean isAscending = State.ASCENDING == getState();
+        final boolean isEndOfRun = isAscending ? getTargetFloor() <= nextFloor : getTargetFloor() >= nextFloor;
+        final FloorQueues floorQueues = (null == getSimulation()) ? null : getSimulation().getFloorQueues();
+        final int freeSpace = getMaxWeight() - numberOfRiders + numberDeparting;
+        Direction boardingDirection = isAscending ? Direction.UP : Direction.DOWN;
+        int numberBoarding =
+                countBoardingRiders(floorQueues, iNextFloor, boardingDirection, freeSpace, timestampCrossingFloors);
+        if ((0 == numberBoarding) && isEndOfRun && (numberOfRiders == numberDeparting)) {
+            boardingDirection = boardingDirection.opposite();
+            numberBoarding =
+                    countBoardingRiders(floorQueues, iNextFloor, boardingDirection, freeSpace, timestampCrossingFloors);
+        }
+        final boolean isTurningAround = (numberBoarding > 0) && (isAscending != (Direction.UP == boardingDirection));
+
+        if ((0 == numberDeparting) && (0 == numberBoarding)) {
+            if (isEndOfRun) {
                 setState(State.IDLE);
-                incrementTimeInCurrentState(timeIncrement - timeElapsedUntilCrossingFloors);
             }
             return;
         }
 
-        //  At the time we cross the floor, we want to drop off all the riders who are getting off...
-        incrementTimeInCurrentState(timeElapsedUntilCrossingFloors);
-        for (PickupRequest pickupRequest : setDepartingRiders) {
-            pickupRequest.setTimestampDropoff(timestampCrossingFloors);
-            getServicedRequests().add(pickupRequest);
-            getActiveRequests().remove(pickupRequest);
+        //  At the time we reach the floor, we want to drop off all the riders who are getting off...
+        for (int counter = 0; counter < numberDeparting; counter++) {
+            final int riderId = departingRiders.poll();
+            numberOfRiders--;
+            riders.setTimestampDropoff(riderId, timestampCrossingFloors);
+            if (null == getSimulation()) {
+                addServicedRider(riderId);
+            } else {
+                getSimulation().onRiderDroppedOff(this, riderId);
+            }
         }
 
         // ... and pick up the new ones who are waiting
-        for (PickupRequest newRider : newRiders) {
-            if (currentPosition < newPosition) {
-                setTargetFloor(Math.max(newRider.getTargetFloor(), getTargetFloor()));
+        for (int counter = 0; counter < numberBoarding; counter++) {
+            final int newRider = floorQueues.poll(iNextFloor, boardingDirection);
+            //  Pickup time is when the elevator doors has closed.
+            riders.setTimestampPickup(newRider, timestampCrossingFloors + getPickupTimeRequired());
+            final int riderTargetFloor = riders.getTargetFloor(newRider);
+            if (isTurningAround) {
+                //  The elevator is still going the old way, so the new target is set directly.
+                checkTargetFloor(riderTargetFloor);
+                if (0 == counter) {
+                    targetFloor = riderTargetFloor;
+                } else {
+                    targetFloor = isAscending ? Math.min(riderTargetFloor, targetFloor)
+                            : Math.max(riderTargetFloor, targetFloor);
+                }
+            } else if (isAscending) {
+                setTargetFloor(Math.max(riderTargetFloor, getTargetFloor()));
             } else {
-                setTargetFloor(Math.min(newRider.getTargetFloor(), getTargetFloor()));
+                setTargetFloor(Math.min(riderTargetFloor, getTargetFloor()));
             }
-            addPickupRequest(newRider);
+            addRider(newRider);
         }
 
-        //  Then we increment the loading times
+        //  Then the doors stay open while the riders get on and off
         setState(State.LOADING);
-        incrementTimeInCurrentState(timeInNewState);
     }
 }
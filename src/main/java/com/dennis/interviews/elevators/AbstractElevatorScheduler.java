@@ -1,19 +1,32 @@
 package com.dennis.interviews.elevators;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.dennis.interviews.elevators.recorder.EventRecorder;
+import com.dennis.interviews.elevators.recorder.EventType;
 
 public abstract class AbstractElevatorScheduler {
-    private static final Logger LOG = LoggerFactory.getLogger(AbstractElevatorScheduler.class);
-
     private Simulation simulation;
+    /**
+     * Scratch copy of the floors with riders waiting and no elevator on its way, reused from one tick to the next.
+     */
+    private final ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+    private final ActiveFloorIndex upHallCalls = new ActiveFloorIndex();
+    private final ActiveFloorIndex downHallCalls = new ActiveFloorIndex();
+    /**
+     * The modification counts of the floor queues and claims the scratch copies were made from, and of the scratch
+     * copies themselves once made.  Every count only goes up, so a sum that moved means something changed.
+     */
+    private long copiedSourceCount = -1L;
+    private long copiedScratchCount = -1L;
+    /**
+     * The number of floors with an unclaimed hall call when the scratch copies were last made.
+     */
+    private int unclaimedFloorCount = 0;
 
     final void setSimulation(final Simulation newSimulation) {
         simulation = newSimulation;
+        copiedSourceCount = -1L;
     }
 
     /**
@@ -27,31 +40,119 @@ public abstract class AbstractElevatorScheduler {
             return;
         }
 
-        final List<Integer> listFloorsToSchedule = new ArrayList<>();
-        final double checkTimestamp = currentTimestamp + timeIncrement;
-        for (Map.Entry<Integer, List<PickupRequest>> entry : getSimulation().getMapActiveRequestsByFloor().entrySet()) {
-            if ((null != entry.getValue()) && !entry.getValue().isEmpty()) {
-                if (entry.getValue().get(0).getTimestamp() < checkTimestamp) {
-                    listFloorsToSchedule.add(entry.getKey());
-                }
-            }
+        //  The simulation keeps track of the floors with riders waiting as riders come and go, so it only needs to be
+        //  copied (a word at a time) for the scheduler to assign floors from, and only when a queue became empty or
+        //  non-empty, a hall call was claimed or released, or the scheduler changed its copies on the last tick.
+        final FloorQueues floorQueues = getSimulation().getFloorQueues();
+        final long sourceCount = getSourceCount();
+        if ((sourceCount != copiedSourceCount) || (getScratchCount() != copiedScratchCount)) {
+            activeFloors.copyFrom(floorQueues.getActiveFloors());
+            upHallCalls.copyFrom(floorQueues.getActiveFloors(Direction.UP));
+            downHallCalls.copyFrom(floorQueues.getActiveFloors(Direction.DOWN));
+            removeClaimedHallCalls();
+            copiedSourceCount = sourceCount;
+            copiedScratchCount = getScratchCount();
+            unclaimedFloorCount = activeFloors.size();
         }
 
-        LOG.info("{}::scheduleElevators(currentTimestamp={}, timeIncrement={}) "
-                    + "found idle elevators({}) and active floors({})",
-                new Object[] { getClass().getName(), currentTimestamp, timeIncrement, listIdleElevators,
-                        listFloorsToSchedule });
-        scheduleIdleElevators(listIdleElevators, listFloorsToSchedule);
+        final EventRecorder eventRecorder = getSimulation().getEventRecorder();
+        if (null != eventRecorder) {
+            eventRecorder.record(currentTimestamp, -1, EventType.SCHEDULE, listIdleElevators.size(),
+                    activeFloors.size(), 0.0, timeIncrement);
+        }
+        scheduleIdleElevators(listIdleElevators, activeFloors);
     }
 
     /**
-     * Matches idle elevators with active floors (floors with waiting passengers).
+     * Whether a scheduling pass could send an idle elevator anywhere, i.e. whether there is a hall call without an
+     * elevator on its way, or the waiting riders or the claims have changed since the last pass (so it is not known
+     * yet).  The next event engine only wakes the scheduler up when this is true.  (NOTE:  Package visibility so only
+     * the simulation can ask)
+     *
+     * @return false if the scheduler would be given no floors
+     */
+    final boolean hasUnclaimedHallCalls() {
+        return (getSourceCount() != copiedSourceCount) || (unclaimedFloorCount > 0);
+    }
+
+    private long getSourceCount() {
+        final FloorQueues floorQueues = getSimulation().getFloorQueues();
+        return floorQueues.getActiveFloors().getModificationCount()
+                + floorQueues.getActiveFloors(Direction.UP).getModificationCount()
+                + floorQueues.getActiveFloors(Direction.DOWN).getModificationCount()
+                + getSimulation().getHallCallClaims().getModificationCount();
+    }
+
+    private long getScratchCount() {
+        return activeFloors.getModificationCount() + upHallCalls.getModificationCount()
+                + downHallCalls.getModificationCount();
+    }
+
+    /**
+     * Hides the hall calls that an elevator is already on its way to, so they do not get a second elevator.  A floor
+     * stays active as long as one of its hall calls is unclaimed.
+     */
+    private void removeClaimedHallCalls() {
+        final HallCallClaims claims = getSimulation().getHallCallClaims();
+        final ActiveFloorIndex claimedFloors = claims.getClaimedFloors();
+        for (int floor = claimedFloors.first(); ActiveFloorIndex.NONE != floor; floor = claimedFloors.next(floor + 1)) {
+            if (claims.isClaimed(floor, Direction.UP)) {
+                upHallCalls.remove(floor);
+            }
+            if (claims.isClaimed(floor, Direction.DOWN)) {
+                downHallCalls.remove(floor);
+            }
+            if (!upHallCalls.contains(floor) && !downHallCalls.contains(floor)) {
+                activeFloors.remove(floor);
+            }
+        }
+    }
+
+    /**
+     * Matches idle elevators with active floors (floors with waiting passengers and no elevator on its way).  The
+     * elevators should be sent with {@link #dispatch(AbstractElevator, int)}, so other elevators are not sent to the
+     * same floor on the following ticks.
      *
      * @param listIdleElevators the list of elevators to schedule
-     * @param activeFloors the set of floors with people waiting
+     * @param activeFloors the set of floors with people waiting (a scratch copy, so floors can be removed from it as
+     *        they are assigned)
      */
     protected abstract void scheduleIdleElevators(final List<AbstractElevator> listIdleElevators,
-            final List<Integer> activeFloors);
+            final ActiveFloorIndex activeFloors);
+
+    /**
+     * The hall calls of the current tick, for schedulers that take the direction of the waiting riders into account
+     * (e.g. to prefer elevators that will reach the floor going the riders' way).
+     *
+     * @param direction the direction of the hall calls
+     * @return the floors with riders waiting to go in the given direction and no elevator on its way (a scratch
+     *         copy, like the active floors)
+     */
+    protected final ActiveFloorIndex getHallCalls(final Direction direction) {
+        return (Direction.UP == direction) ? upHallCalls : downHallCalls;
+    }
+
+    /**
+     * Sends an elevator to a floor, and claims the hall calls waiting there for it until it arrives (or goes idle, or
+     * is sent somewhere else).  Without a simulation, the elevator is only sent to the floor.
+     *
+     * @param elevator the elevator to send
+     * @param floor the floor to send it to
+     */
+    protected final void dispatch(final AbstractElevator elevator, final int floor) {
+        elevator.setTargetFloor(floor);
+        if (null == getSimulation()) {
+            return;
+        }
+
+        final FloorQueues floorQueues = getSimulation().getFloorQueues();
+        final HallCallClaims claims = getSimulation().getHallCallClaims();
+        for (Direction direction : Direction.values()) {
+            if (floorQueues.size(floor, direction) > 0) {
+                claims.claim(elevator.getId(), floor, direction);
+            }
+        }
+    }
 
     protected final Simulation getSimulation() {
         return simulation;
@@ -0,0 +1,227 @@
+package com.dennis.interviews.elevators;
+
+import java.util.Arrays;
+
+/**
+ * A set of floors backed by a bitset, for the schedulers to look up floors with waiting riders.  Adding and removing
+ * a floor is constant time, and finding the nearest floor to a position scans 64 floors per step (a skyscraper fits
+ * in a handful of words).  The set covers a range of floors that grows as needed, and never shrinks so it can be
+ * reused from one tick to the next without allocating.
+ *
+ * @author dennislin
+ */
+public final class ActiveFloorIndex {
+    /**
+     * Returned by the lookups when there is no such floor.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private long[] words = new long[0];
+    private int minFloor = 0;
+    private int size = 0;
+    private long modificationCount = 0L;
+
+    public ActiveFloorIndex() {
+        // Do nothing.
+    }
+
+    /**
+     * @return the number of floors in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * @return a count that goes up every time the set is modified (and never goes down), so a copy of the set can
+     *         tell whether it is out of date without comparing the floors
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @return whether the floor is in the set
+     */
+    public boolean contains(final int floor) {
+        final long index = (long) floor - minFloor;
+        if ((index < 0) || (index >= (long) words.length * BITS_PER_WORD)) {
+            return false;
+        }
+
+        return 0L != (words[(int) (index >>> 6)] & (1L << index));
+    }
+
+    /**
+     * @param floor the floor to add
+     * @return whether the floor was not already in the set
+     */
+    public boolean add(final int floor) {
+        ensureFloor(floor);
+        final int index = floor - minFloor;
+        final long mask = 1L << index;
+        if (0L != (words[index >>> 6] & mask)) {
+            return false;
+        }
+
+        words[index >>> 6] |= mask;
+        size++;
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * @param floor the floor to remove
+     * @return whether the floor was in the set
+     */
+    public boolean remove(final int floor) {
+        if (!contains(floor)) {
+            return false;
+        }
+
+        final int index = floor - minFloor;
+        words[index >>> 6] &= ~(1L << index);
+        size--;
+        modificationCount++;
+        return true;
+    }
+
+    /**
+     * Removes every floor (keeping the range of floors covered, so adding them back does not allocate).
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+        size = 0;
+        modificationCount++;
+    }
+
+    /**
+     * Makes this set a copy of another one (only allocates if the other set covers more floors).
+     *
+     * @param other the set to copy
+     */
+    public void copyFrom(final ActiveFloorIndex other) {
+        if (words.length < other.words.length) {
+            words = new long[other.words.length];
+        }
+
+        System.arraycopy(other.words, 0, words, 0, other.words.length);
+        Arrays.fill(words, other.words.length, words.length, 0L);
+        minFloor = other.minFloor;
+        size = other.size;
+        modificationCount++;
+    }
+
+    /**
+     * @return the lowest floor in the set, or {@link #NONE} if the set is empty
+     */
+    public int first() {
+        return next(minFloor);
+    }
+
+    /**
+     * @param floor the floor to start looking from
+     * @return the lowest floor in the set that is at or above the given floor, or {@link #NONE} if there is none
+     */
+    public int next(final int floor) {
+        int index = Math.max(0, floor - minFloor);
+        int wordIndex = index >>> 6;
+        if (wordIndex >= words.length) {
+            return NONE;
+        }
+
+        long word = words[wordIndex] & (-1L << index);
+        while (0L == word) {
+            if (++wordIndex == words.length) {
+                return NONE;
+            }
+            word = words[wordIndex];
+        }
+
+        return minFloor + (wordIndex * BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @param floor the floor to start looking from
+     * @return the highest floor in the set that is at or below the given floor, or {@link #NONE} if there is none
+     */
+    public int previous(final int floor) {
+        final long index = Math.min((long) floor - minFloor, (long) words.length * BITS_PER_WORD - 1);
+        if (index < 0) {
+            return NONE;
+        }
+
+        int wordIndex = (int) (index >>> 6);
+        long word = words[wordIndex] & (-1L >>> (BITS_PER_WORD - 1 - (index & (BITS_PER_WORD - 1))));
+        while (0L == word) {
+            if (--wordIndex < 0) {
+                return NONE;
+            }
+            word = words[wordIndex];
+        }
+
+        return minFloor + (wordIndex * BITS_PER_WORD) + (BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word));
+    }
+
+    /**
+     * @param floor the floor to start looking from
+     * @return the floor in the set closest to the given floor (the lower one on a tie), or {@link #NONE} if the set
+     *         is empty
+     */
+    public int nearest(final int floor) {
+        final int below = previous(floor);
+        final int above = next(floor);
+        if (NONE == below) {
+            return above;
+        } else if (NONE == above) {
+            return below;
+        }
+
+        return ((long) floor - below <= (long) above - floor) ? below : above;
+    }
+
+    /**
+     * Grows the bitset (in either direction) so that it covers the given floor.
+     *
+     * @param floor the floor that needs to be covered
+     */
+    private void ensureFloor(final int floor) {
+        if (0 == words.length) {
+            minFloor = floor;
+            words = new long[1];
+            return;
+        }
+
+        final int maxFloor = minFloor + (words.length * BITS_PER_WORD) - 1;
+        if ((floor >= minFloor) && (floor <= maxFloor)) {
+            return;
+        }
+
+        //  Keep the bits aligned to whole words when growing downwards, so the words can simply be shifted over.
+        final int wordsBelow = (floor < minFloor) ? (minFloor - floor + BITS_PER_WORD - 1) / BITS_PER_WORD : 0;
+        final int wordsAbove = (floor > maxFloor) ? (floor - maxFloor + BITS_PER_WORD - 1) / BITS_PER_WORD : 0;
+        final long[] newWords = new long[Math.max(words.length * 2, words.length + wordsBelow + wordsAbove)];
+        System.arraycopy(words, 0, newWords, wordsBelow, words.length);
+        words = newWords;
+        minFloor -= wordsBelow * BITS_PER_WORD;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("ActiveFloorIndex[");
+        String separator = "";
+        for (int floor = first(); NONE != floor; floor = next(floor + 1)) {
+            builder.append(separator).append(floor);
+            separator = ", ";
+        }
+
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.dennis.interviews.elevators;
+
+/**
+ * The direction of a hall call, i.e. which of the two buttons a rider pressed on their floor.
+ *
+ * @author dennislin
+ */
+public enum Direction {
+    UP,
+    DOWN;
+
+    /**
+     * @param floorDelta the number of floors a rider is travelling (negative if going down)
+     * @return the direction of the rider
+     */
+    public static Direction of(final int floorDelta) {
+        return (floorDelta < 0) ? DOWN : UP;
+    }
+
+    public Direction opposite() {
+        return (UP == this) ? DOWN : UP;
+    }
+}
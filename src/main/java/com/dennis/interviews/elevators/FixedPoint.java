@@ -0,0 +1,62 @@
+package com.dennis.interviews.elevators;
+
+/**
+ * Conversions between the units the elevators are configured in (seconds and floors, as doubles) and the units a
+ * {@link Simulation.Clock#FIXED_POINT fixed point clock} runs on (integer milliseconds and millifloors).  Converting
+ * back to a double always divides the same integer by the same power of ten, so the doubles handed out are the same
+ * on every JVM and can be converted to integers again without any loss.
+ *
+ * @author dennislin
+ */
+final class FixedPoint {
+    static final long MILLIS_PER_SECOND = 1000L;
+    static final long MILLIFLOORS_PER_FLOOR = 1000L;
+    /**
+     * How far (in milliseconds) a time increment may be from a whole number of milliseconds, to allow for the
+     * rounding error of writing e.g. 0.1 seconds as a double.
+     */
+    private static final double WHOLE_MILLIS_TOLERANCE = 1.0e-6;
+
+    @SuppressWarnings("unused")
+    private FixedPoint() {
+        throw new RuntimeException("Should not instantiate");
+    }
+
+    /**
+     * @param seconds a duration or timestamp
+     * @return the nearest whole number of milliseconds
+     */
+    static long toMillis(final double seconds) {
+        return Math.round(seconds * MILLIS_PER_SECOND);
+    }
+
+    /**
+     * @param seconds a time increment, which must be a whole number of milliseconds
+     * @return the number of milliseconds
+     */
+    static long toWholeMillis(final double seconds) {
+        final long millis = toMillis(seconds);
+        if (Math.abs(seconds * MILLIS_PER_SECOND - millis) > WHOLE_MILLIS_TOLERANCE) {
+            throw new IllegalArgumentException(String.format(
+                    "Time increment of %s seconds is not a whole number of milliseconds", Double.toString(seconds)));
+        }
+
+        return millis;
+    }
+
+    static double toSeconds(final long millis) {
+        return (double) millis / MILLIS_PER_SECOND;
+    }
+
+    /**
+     * @param floors a position, or a speed in floors per second
+     * @return the nearest whole number of millifloors (per second)
+     */
+    static long toMillifloors(final double floors) {
+        return Math.round(floors * MILLIFLOORS_PER_FLOOR);
+    }
+
+    static double toFloors(final long millifloors) {
+        return (double) millifloors / MILLIFLOORS_PER_FLOOR;
+    }
+}
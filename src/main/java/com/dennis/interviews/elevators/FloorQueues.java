@@ -0,0 +1,262 @@
+package com.dennis.interviews.elevators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The riders waiting for an elevator, queued by the floor they are waiting on and the direction they are going in
+ * (the up and down hall calls of each floor), so an elevator only picks up the riders going its way.  The queues are
+ * stored in arrays indexed by floor, and the total number of waiting riders is maintained as riders come and go, so
+ * both per-floor lookups and checking for waiting riders are constant time.  The floors with riders waiting are also
+ * kept in an {@link ActiveFloorIndex} per direction (and one for either direction) as queues become empty or
+ * non-empty, so the schedulers never need to scan the building.  The queues hold the ids of the riders, who are looked
+ * up in the {@link RiderStore} of the simulation.  (NOTE:  Only the read operations are public, so the schedulers get
+ * a read-only view of the queues)
+ *
+ * @author dennislin
+ */
+public final class FloorQueues {
+    private PickupRequestQueue[] upQueues = new PickupRequestQueue[0];
+    private PickupRequestQueue[] downQueues = new PickupRequestQueue[0];
+    private int minFloor = 0;
+    private int waitingCount = 0;
+    private final ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+    private final ActiveFloorIndex upHallCalls = new ActiveFloorIndex();
+    private final ActiveFloorIndex downHallCalls = new ActiveFloorIndex();
+    private final RiderStore riders;
+
+    FloorQueues() {
+        this(new RiderStore());
+    }
+
+    FloorQueues(final RiderStore riders) {
+        this.riders = riders;
+    }
+
+    /**
+     * @return the store to look up the riders in the queues
+     */
+    public RiderStore getRiders() {
+        return riders;
+    }
+
+    /**
+     * @return the lowest floor with a queue (may not have any riders waiting)
+     */
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    /**
+     * @return the highest floor with a queue (may not have any riders waiting)
+     */
+    public int getMaxFloor() {
+        return minFloor + upQueues.length - 1;
+    }
+
+    /**
+     * @return the total number of riders waiting, across all floors
+     */
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @return the number of riders waiting on the given floor, going either way
+     */
+    public int size(final int floor) {
+        return size(floor, Direction.UP) + size(floor, Direction.DOWN);
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @param direction the direction the riders are going in
+     * @return the number of riders waiting on the given floor to go in the given direction
+     */
+    public int size(final int floor, final Direction direction) {
+        final PickupRequestQueue queue = getQueue(floor, direction);
+        return (null == queue) ? 0 : queue.size();
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @return the rider who has been waiting on the given floor the longest (going either way), or
+     *         {@link RiderStore#NONE} if nobody is waiting there
+     */
+    public int peek(final int floor) {
+        final int upRider = peek(floor, Direction.UP);
+        final int downRider = peek(floor, Direction.DOWN);
+        if ((RiderStore.NONE == upRider) || (RiderStore.NONE == downRider)) {
+            return (RiderStore.NONE == upRider) ? downRider : upRider;
+        }
+
+        return (riders.getTimestamp(downRider) < riders.getTimestamp(upRider)) ? downRider : upRider;
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @param direction the direction the riders are going in
+     * @return the rider who has been waiting on the given floor the longest to go in the given direction, or
+     *         {@link RiderStore#NONE} if nobody is
+     */
+    public int peek(final int floor, final Direction direction) {
+        final PickupRequestQueue queue = getQueue(floor, direction);
+        return (null == queue) ? RiderStore.NONE : queue.peek();
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @param direction the direction the riders are going in
+     * @return the queue of riders waiting on the given floor to go in the given direction, or null if the floor is
+     *         outside of the building
+     */
+    public PickupRequestQueue getQueue(final int floor, final Direction direction) {
+        final PickupRequestQueue[] queues = (Direction.UP == direction) ? upQueues : downQueues;
+        final int index = floor - minFloor;
+        return ((index < 0) || (index >= queues.length)) ? null : queues[index];
+    }
+
+    /**
+     * @return the floors with riders waiting, going either way (NOTE:  Package visibility, since it must not be
+     *         modified)
+     */
+    ActiveFloorIndex getActiveFloors() {
+        return activeFloors;
+    }
+
+    /**
+     * @param direction the direction the riders are going in
+     * @return the floors with riders waiting to go in the given direction (NOTE:  Package visibility, since it must
+     *         not be modified)
+     */
+    ActiveFloorIndex getActiveFloors(final Direction direction) {
+        return (Direction.UP == direction) ? upHallCalls : downHallCalls;
+    }
+
+    /**
+     * @param pickupRequest a rider who is not in the store yet
+     * @return the id of the rider
+     */
+    int add(final PickupRequest pickupRequest) {
+        final int riderId = riders.add(pickupRequest);
+        add(riderId);
+        return riderId;
+    }
+
+    void add(final int riderId) {
+        final int floor = riders.getStartingFloor(riderId);
+        final Direction direction = Direction.of(riders.getDirection(riderId));
+        ensureFloor(floor);
+        final PickupRequestQueue queue = getQueue(floor, direction);
+        queue.add(riderId);
+        waitingCount++;
+        if (1 == queue.size()) {
+            getActiveFloors(direction).add(floor);
+            activeFloors.add(floor);
+        }
+    }
+
+    /**
+     * @param floor the floor to take a rider from
+     * @return the rider who has been waiting on the given floor the longest (going either way), or
+     *         {@link RiderStore#NONE} if nobody is waiting there
+     */
+    int poll(final int floor) {
+        final int riderId = peek(floor);
+        return (RiderStore.NONE == riderId) ? RiderStore.NONE
+                : poll(floor, Direction.of(riders.getDirection(riderId)));
+    }
+
+    int poll(final int floor, final Direction direction) {
+        final PickupRequestQueue queue = getQueue(floor, direction);
+        if ((null == queue) || queue.isEmpty()) {
+            return RiderStore.NONE;
+        }
+
+        waitingCount--;
+        final int riderId = queue.poll();
+        if (queue.isEmpty()) {
+            getActiveFloors(direction).remove(floor);
+            if (0 == size(floor, direction.opposite())) {
+                activeFloors.remove(floor);
+            }
+        }
+
+        return riderId;
+    }
+
+    /**
+     * Writes the waiting riders to a checkpoint, floor by floor (the up queue, then the down queue) in the order they
+     * arrived.
+     *
+     * @param output the checkpoint being written
+     * @throws IOException if the checkpoint can not be written
+     */
+    void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(waitingCount);
+        for (int floor = activeFloors.first(); ActiveFloorIndex.NONE != floor; floor = activeFloors.next(floor + 1)) {
+            for (Direction direction : Direction.values()) {
+                final PickupRequestQueue queue = getQueue(floor, direction);
+                for (int counter = 0; counter < queue.size(); counter++) {
+                    riders.writeRider(queue.get(counter), output);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads back the riders written by {@link #writeTo(DataOutput)} (NOTE:  The queues must be empty).
+     *
+     * @param input the checkpoint being read
+     * @throws IOException if the checkpoint can not be read
+     */
+    void readFrom(final DataInput input) throws IOException {
+        if (0 != waitingCount) {
+            throw new IllegalStateException("Can not restore riders into queues that already have riders waiting.");
+        }
+
+        final int count = input.readInt();
+        for (int counter = 0; counter < count; counter++) {
+            add(riders.readRider(input));
+        }
+    }
+
+    /**
+     * Grows the arrays of queues (in either direction) so that they cover the given floor.
+     *
+     * @param floor the floor that needs a queue
+     */
+    void ensureFloor(final int floor) {
+        if (0 == upQueues.length) {
+            minFloor = floor;
+            upQueues = new PickupRequestQueue[] { new PickupRequestQueue() };
+            downQueues = new PickupRequestQueue[] { new PickupRequestQueue() };
+            return;
+        }
+
+        final int newMinFloor = Math.min(minFloor, floor);
+        final int newMaxFloor = Math.max(getMaxFloor(), floor);
+        if ((newMinFloor == minFloor) && (newMaxFloor == getMaxFloor())) {
+            return;
+        }
+
+        upQueues = growQueues(upQueues, newMinFloor, newMaxFloor);
+        downQueues = growQueues(downQueues, newMinFloor, newMaxFloor);
+        minFloor = newMinFloor;
+    }
+
+    private PickupRequestQueue[] growQueues(final PickupRequestQueue[] queues, final int newMinFloor,
+            final int newMaxFloor) {
+        final PickupRequestQueue[] newQueues = new PickupRequestQueue[newMaxFloor - newMinFloor + 1];
+        System.arraycopy(queues, 0, newQueues, minFloor - newMinFloor, queues.length);
+        for (int counter = 0; counter < newQueues.length; counter++) {
+            if (null == newQueues[counter]) {
+                newQueues[counter] = new PickupRequestQueue();
+            }
+        }
+
+        return newQueues;
+    }
+}
@@ -0,0 +1,222 @@
+package com.dennis.interviews.elevators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Which elevator has been dispatched to each hall call, so the schedulers do not send a second elevator to a floor
+ * that one is already on its way to.  The claims are kept in arrays indexed by floor (one per direction), and each
+ * elevator holds the claims of at most one floor:  claiming a floor releases the elevator's claims on any other
+ * floor, and claiming a hall call held by another elevator takes it over.  An elevator lets go of its claims on a
+ * floor when it reaches that floor (whatever it ends up boarding there), and of all of its claims when it goes idle.
+ * (NOTE:  Only the read operations are public, the claims can only be modified by the simulation engine)
+ *
+ * @author dennislin
+ */
+public final class HallCallClaims {
+    /**
+     * Returned by the lookups when nobody has claimed the hall call.
+     */
+    public static final int NONE = -1;
+
+    private int[] upClaimants = new int[0];
+    private int[] downClaimants = new int[0];
+    private int minFloor = 0;
+    private final ActiveFloorIndex claimedFloors = new ActiveFloorIndex();
+    /**
+     * The floor each elevator has claimed, indexed by elevator id ({@link ActiveFloorIndex#NONE} if it has none).
+     */
+    private int[] claimedFloorByElevator = new int[0];
+    private long modificationCount = 0L;
+
+    HallCallClaims() {
+        // Do nothing.
+    }
+
+    /**
+     * @param floor the floor to look up
+     * @param direction the direction of the hall call
+     * @return the id of the elevator dispatched to the hall call, or {@link #NONE} if it is unclaimed
+     */
+    public int getClaimant(final int floor, final Direction direction) {
+        final int[] claimants = (Direction.UP == direction) ? upClaimants : downClaimants;
+        final int index = floor - minFloor;
+        return ((index < 0) || (index >= claimants.length)) ? NONE : claimants[index];
+    }
+
+    public boolean isClaimed(final int floor, final Direction direction) {
+        return NONE != getClaimant(floor, direction);
+    }
+
+    /**
+     * @param elevatorId the elevator to look up
+     * @return the floor the elevator has been dispatched to, or {@link ActiveFloorIndex#NONE} if it has no claims
+     */
+    public int getClaimedFloor(final int elevatorId) {
+        return (elevatorId < claimedFloorByElevator.length) ? claimedFloorByElevator[elevatorId]
+                : ActiveFloorIndex.NONE;
+    }
+
+    /**
+     * @return a count that goes up every time a hall call is claimed or released (and never goes down)
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @return the floors with a claimed hall call in either direction (NOTE:  Package visibility, since it must not be
+     *         modified)
+     */
+    ActiveFloorIndex getClaimedFloors() {
+        return claimedFloors;
+    }
+
+    /**
+     * Dispatches an elevator to a hall call.  The elevator's claims on any other floor are released, and the hall
+     * call is taken over if another elevator had claimed it.
+     *
+     * @param elevatorId the elevator dispatched
+     * @param floor the floor of the hall call
+     * @param direction the direction of the hall call
+     */
+    void claim(final int elevatorId, final int floor, final Direction direction) {
+        final int previousFloor = getClaimedFloor(elevatorId);
+        if ((ActiveFloorIndex.NONE != previousFloor) && (floor != previousFloor)) {
+            release(elevatorId);
+        }
+
+        final int previousClaimant = getClaimant(floor, direction);
+        if (elevatorId == previousClaimant) {
+            return;
+        }
+
+        ensureFloor(floor);
+        ensureElevator(elevatorId);
+        ((Direction.UP == direction) ? upClaimants : downClaimants)[floor - minFloor] = elevatorId;
+        claimedFloorByElevator[elevatorId] = floor;
+        claimedFloors.add(floor);
+        modificationCount++;
+        if ((NONE != previousClaimant) && (previousClaimant != getClaimant(floor, direction.opposite()))) {
+            claimedFloorByElevator[previousClaimant] = ActiveFloorIndex.NONE;
+        }
+    }
+
+    /**
+     * Releases the claims of an elevator on a floor, e.g. when it reaches the floor.
+     *
+     * @param elevatorId the elevator
+     * @param floor the floor
+     */
+    void release(final int elevatorId, final int floor) {
+        if ((ActiveFloorIndex.NONE == floor) || (floor != getClaimedFloor(elevatorId))) {
+            return;
+        }
+
+        final int index = floor - minFloor;
+        if (elevatorId == upClaimants[index]) {
+            upClaimants[index] = NONE;
+        }
+        if (elevatorId == downClaimants[index]) {
+            downClaimants[index] = NONE;
+        }
+        if ((NONE == upClaimants[index]) && (NONE == downClaimants[index])) {
+            claimedFloors.remove(floor);
+        }
+        claimedFloorByElevator[elevatorId] = ActiveFloorIndex.NONE;
+        modificationCount++;
+    }
+
+    /**
+     * Releases all the claims of an elevator, e.g. when it goes idle.
+     *
+     * @param elevatorId the elevator
+     */
+    void release(final int elevatorId) {
+        release(elevatorId, getClaimedFloor(elevatorId));
+    }
+
+    /**
+     * Writes the claims to a checkpoint, floor by floor (the up hall call, then the down hall call).
+     *
+     * @param output the checkpoint being written
+     * @throws IOException if the checkpoint can not be written
+     */
+    void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(claimedFloors.size());
+        for (int floor = claimedFloors.first(); ActiveFloorIndex.NONE != floor; floor = claimedFloors.next(floor + 1)) {
+            output.writeInt(floor);
+            output.writeInt(getClaimant(floor, Direction.UP));
+            output.writeInt(getClaimant(floor, Direction.DOWN));
+        }
+    }
+
+    /**
+     * Reads back the claims written by {@link #writeTo(DataOutput)} (NOTE:  There must not be any claims yet).
+     *
+     * @param input the checkpoint being read
+     * @param numberOfElevators the number of elevators in the simulation, to validate the claims against
+     * @throws IOException if the checkpoint can not be read
+     */
+    void readFrom(final DataInput input, final int numberOfElevators) throws IOException {
+        if (!claimedFloors.isEmpty()) {
+            throw new IllegalStateException("Can not restore hall call claims over existing claims.");
+        }
+
+        final int count = input.readInt();
+        for (int counter = 0; counter < count; counter++) {
+            final int floor = input.readInt();
+            for (Direction direction : Direction.values()) {
+                final int elevatorId = input.readInt();
+                if ((elevatorId < NONE) || (elevatorId >= numberOfElevators)) {
+                    throw new IOException(String.format("Hall call on floor %d is claimed by unknown elevator %d.",
+                            floor, elevatorId));
+                } else if (NONE != elevatorId) {
+                    claim(elevatorId, floor, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the arrays of claimants (in either direction) so that they cover the given floor.
+     *
+     * @param floor the floor that needs to be covered
+     */
+    private void ensureFloor(final int floor) {
+        if (0 == upClaimants.length) {
+            minFloor = floor;
+            upClaimants = new int[] { NONE };
+            downClaimants = new int[] { NONE };
+            return;
+        }
+
+        final int maxFloor = minFloor + upClaimants.length - 1;
+        final int newMinFloor = Math.min(minFloor, floor);
+        final int newMaxFloor = Math.max(maxFloor, floor);
+        if ((newMinFloor == minFloor) && (newMaxFloor == maxFloor)) {
+            return;
+        }
+
+        upClaimants = growClaimants(upClaimants, newMinFloor, newMaxFloor);
+        downClaimants = growClaimants(downClaimants, newMinFloor, newMaxFloor);
+        minFloor = newMinFloor;
+    }
+
+    private int[] growClaimants(final int[] claimants, final int newMinFloor, final int newMaxFloor) {
+        final int[] newClaimants = new int[newMaxFloor - newMinFloor + 1];
+        Arrays.fill(newClaimants, NONE);
+        System.arraycopy(claimants, 0, newClaimants, minFloor - newMinFloor, claimants.length);
+        return newClaimants;
+    }
+
+    private void ensureElevator(final int elevatorId) {
+        if (elevatorId >= claimedFloorByElevator.length) {
+            final int oldLength = claimedFloorByElevator.length;
+            claimedFloorByElevator = Arrays.copyOf(claimedFloorByElevator, Math.max(elevatorId + 1, oldLength * 2));
+            Arrays.fill(claimedFloorByElevator, oldLength, claimedFloorByElevator.length, ActiveFloorIndex.NONE);
+        }
+    }
+}
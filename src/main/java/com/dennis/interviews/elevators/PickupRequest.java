@@ -1,5 +1,9 @@
 package com.dennis.interviews.elevators;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Models a person who rides an elevator.  Meant to capture statistics to perform an queuing theory analysis.
  *
@@ -63,6 +67,32 @@ public class PickupRequest {
         return timestampDropoff;
     }
 
+    /**
+     * Writes this rider to a checkpoint.  (NOTE:  Package visibility, since the format is private to the simulation)
+     *
+     * @param output the checkpoint being written
+     * @throws IOException if the checkpoint can not be written
+     */
+    void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(startingFloor);
+        output.writeInt(direction);
+        output.writeDouble(timestamp);
+        output.writeDouble(timestampPickup);
+        output.writeDouble(timestampDropoff);
+    }
+
+    /**
+     * @param input the checkpoint being read
+     * @return a rider written by {@link #writeTo(DataOutput)}
+     * @throws IOException if the checkpoint can not be read
+     */
+    static PickupRequest readFrom(final DataInput input) throws IOException {
+        final PickupRequest pickupRequest = new PickupRequest(input.readInt(), input.readInt(), input.readDouble());
+        pickupRequest.timestampPickup = input.readDouble();
+        pickupRequest.timestampDropoff = input.readDouble();
+        return pickupRequest;
+    }
+
     @Override
     public String toString() {
         return String.format("PickupRequest(startFloor=%2d, direction=%2d, targetFloor=%2d, timestamp=%f, "
@@ -0,0 +1,84 @@
+package com.dennis.interviews.elevators;
+
+/**
+ * A first-in, first-out queue of riders (by their id in the {@link RiderStore}) backed by a circular array, so adding
+ * and removing riders does not allocate once the queue has grown to its working size.  (NOTE:  Only the read
+ * operations are public, the queue can only be modified by the simulation engine)
+ *
+ * @author dennislin
+ */
+public final class PickupRequestQueue {
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] elements = new int[DEFAULT_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    PickupRequestQueue() {
+        // Do nothing.
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * @return the rider at the head of the queue, or {@link RiderStore#NONE} if the queue is empty
+     */
+    public int peek() {
+        return (0 == size) ? RiderStore.NONE : elements[head];
+    }
+
+    /**
+     * @param index the position in the queue, where 0 is the head of the queue
+     * @return the rider at the given position
+     */
+    public int get(final int index) {
+        if ((index < 0) || (index >= size)) {
+            throw new IndexOutOfBoundsException(String.format("Index %d is out of bounds for size %d", index, size));
+        }
+
+        return elements[(head + index) & (elements.length - 1)];
+    }
+
+    void add(final int riderId) {
+        if (size == elements.length) {
+            grow();
+        }
+
+        elements[(head + size) & (elements.length - 1)] = riderId;
+        size++;
+    }
+
+    /**
+     * @return the rider that was removed from the head of the queue, or {@link RiderStore#NONE} if the queue is empty
+     */
+    int poll() {
+        if (0 == size) {
+            return RiderStore.NONE;
+        }
+
+        final int riderId = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+
+        return riderId;
+    }
+
+    /**
+     * Doubles the capacity of the queue (the capacity is always a power of two, so indexes can be wrapped with a mask).
+     */
+    private void grow() {
+        final int[] newElements = new int[elements.length * 2];
+        for (int counter = 0; counter < size; counter++) {
+            newElements[counter] = elements[(head + counter) & (elements.length - 1)];
+        }
+
+        elements = newElements;
+        head = 0;
+    }
+}
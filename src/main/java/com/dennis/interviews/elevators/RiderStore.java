@@ -0,0 +1,267 @@
+package com.dennis.interviews.elevators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The riders of a simulation, stored column by column in primitive arrays and addressed by an int id, so the engine
+ * can pass riders around (in the floor queues and the elevators) without an object per rider.  A rider takes 32 bytes
+ * in the columns, against roughly 76 bytes for a retained {@link PickupRequest} in a linked list.  The columns are
+ * split into pages, so growing the store never copies the riders already in it.  Riders who are not retained after
+ * being dropped off are released, and their ids are reused by the next riders to arrive.
+ *
+ * <p>By default, the store does not hold on to the {@link PickupRequest} a rider arrived as, and riders are read back
+ * as copies.  Callers who need their own requests filled in can opt in with
+ * {@link #setKeepingPickupRequests(boolean)}, at the cost of a reference per rider on top of the columns:  the
+ * requests are then kept (until their riders are released), their pickup and drop off timestamps are written through
+ * to them, and {@link #getPickupRequest(int)} returns them.
+ *
+ * <p>(NOTE:  Only the read operations are public, the riders can only be modified by the simulation engine)
+ *
+ * @author dennislin
+ */
+public final class RiderStore {
+    /**
+     * Returned by the lookups when there is no such rider.
+     */
+    public static final int NONE = -1;
+
+    private static final int PAGE_BITS = 14;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private int[][] startingFloors = new int[0][];
+    private int[][] targetFloors = new int[0][];
+    private double[][] timestamps = new double[0][];
+    private double[][] timestampsPickup = new double[0][];
+    private double[][] timestampsDropoff = new double[0][];
+    /**
+     * The requests the riders arrived as, only if they are being kept (a page is allocated the first time one of its
+     * riders arrives as a request, and is kept for the ids that are reused).
+     */
+    private boolean keepingPickupRequests = false;
+    private PickupRequest[][] sources = new PickupRequest[0][];
+
+    private int highestId = 0;
+    private int[] releasedIds = new int[0];
+    private int releasedCount = 0;
+
+    RiderStore() {
+        // Do nothing.
+    }
+
+    /**
+     * @return the number of riders in the store (waiting, riding, or retained after being dropped off)
+     */
+    public int size() {
+        return highestId - releasedCount;
+    }
+
+    public int getStartingFloor(final int id) {
+        return startingFloors[id >>> PAGE_BITS][id & PAGE_MASK];
+    }
+
+    public int getTargetFloor(final int id) {
+        return targetFloors[id >>> PAGE_BITS][id & PAGE_MASK];
+    }
+
+    /**
+     * @param id the rider
+     * @return the number of floors the rider is travelling, negative if the rider is going down
+     */
+    public int getDirection(final int id) {
+        return getTargetFloor(id) - getStartingFloor(id);
+    }
+
+    /**
+     * @param id the rider
+     * @return when the rider arrived at the elevator
+     */
+    public double getTimestamp(final int id) {
+        return timestamps[id >>> PAGE_BITS][id & PAGE_MASK];
+    }
+
+    public double getTimestampPickup(final int id) {
+        return timestampsPickup[id >>> PAGE_BITS][id & PAGE_MASK];
+    }
+
+    public double getTimestampDropoff(final int id) {
+        return timestampsDropoff[id >>> PAGE_BITS][id & PAGE_MASK];
+    }
+
+    public boolean isKeepingPickupRequests() {
+        return keepingPickupRequests;
+    }
+
+    /**
+     * Sets whether the riders keep the requests they arrived as, and fill in their timestamps.  (NOTE:  The store
+     * must be empty)
+     *
+     * @param keepingPickupRequests true to keep the requests
+     */
+    void setKeepingPickupRequests(final boolean keepingPickupRequests) {
+        if (0 != highestId) {
+            throw new IllegalStateException("Can only choose to keep the pickup requests of an empty rider store.");
+        }
+
+        this.keepingPickupRequests = keepingPickupRequests;
+    }
+
+    /**
+     * @param id the rider
+     * @return the request the rider arrived as if it is being kept, or else a copy of the rider
+     */
+    public PickupRequest getPickupRequest(final int id) {
+        final PickupRequest source = getSource(id);
+        return (null == source) ? toPickupRequest(id) : source;
+    }
+
+    /**
+     * Copies a rider into a new request, e.g. for reporting (the copy is not updated as the rider moves on).
+     *
+     * @param id the rider
+     * @return a copy of the rider
+     */
+    public PickupRequest toPickupRequest(final int id) {
+        final PickupRequest pickupRequest = new PickupRequest(getStartingFloor(id), getDirection(id), getTimestamp(id));
+        pickupRequest.setTimestampPickup(getTimestampPickup(id));
+        pickupRequest.setTimestampDropoff(getTimestampDropoff(id));
+        return pickupRequest;
+    }
+
+    /**
+     * Adds a rider who arrived as a request.  If the requests are being kept, the pickup and drop off timestamps of
+     * the request are kept up to date until the rider is released.
+     *
+     * @param pickupRequest the rider
+     * @return the id of the rider
+     */
+    int add(final PickupRequest pickupRequest) {
+        final int id = add(pickupRequest.getStartingFloor(), pickupRequest.getTargetFloor(),
+                pickupRequest.getTimestamp());
+        timestampsPickup[id >>> PAGE_BITS][id & PAGE_MASK] = pickupRequest.getTimestampPickup();
+        timestampsDropoff[id >>> PAGE_BITS][id & PAGE_MASK] = pickupRequest.getTimestampDropoff();
+
+        if (keepingPickupRequests) {
+            final int page = id >>> PAGE_BITS;
+            if (null == sources[page]) {
+                sources[page] = new PickupRequest[PAGE_SIZE];
+            }
+            sources[page][id & PAGE_MASK] = pickupRequest;
+        }
+
+        return id;
+    }
+
+    /**
+     * @param startingFloor the floor the rider is waiting on
+     * @param targetFloor the floor the rider is going to
+     * @param timestamp when the rider arrived at the elevator
+     * @return the id of the rider
+     */
+    int add(final int startingFloor, final int targetFloor, final double timestamp) {
+        final int id = (releasedCount > 0) ? releasedIds[--releasedCount] : allocateId();
+        final int page = id >>> PAGE_BITS;
+        final int index = id & PAGE_MASK;
+        startingFloors[page][index] = startingFloor;
+        targetFloors[page][index] = targetFloor;
+        timestamps[page][index] = timestamp;
+        timestampsPickup[page][index] = 0.0;
+        timestampsDropoff[page][index] = 0.0;
+
+        return id;
+    }
+
+    private int allocateId() {
+        if (Integer.MAX_VALUE == highestId) {
+            throw new IllegalStateException("The rider store is full.");
+        }
+
+        final int page = highestId >>> PAGE_BITS;
+        if (page == startingFloors.length) {
+            final int pageCount = Math.max(1, page * 2);
+            startingFloors = Arrays.copyOf(startingFloors, pageCount);
+            targetFloors = Arrays.copyOf(targetFloors, pageCount);
+            timestamps = Arrays.copyOf(timestamps, pageCount);
+            timestampsPickup = Arrays.copyOf(timestampsPickup, pageCount);
+            timestampsDropoff = Arrays.copyOf(timestampsDropoff, pageCount);
+            sources = Arrays.copyOf(sources, pageCount);
+        }
+        if (null == startingFloors[page]) {
+            startingFloors[page] = new int[PAGE_SIZE];
+            targetFloors[page] = new int[PAGE_SIZE];
+            timestamps[page] = new double[PAGE_SIZE];
+            timestampsPickup[page] = new double[PAGE_SIZE];
+            timestampsDropoff[page] = new double[PAGE_SIZE];
+        }
+
+        return highestId++;
+    }
+
+    void setTimestampPickup(final int id, final double timestamp) {
+        timestampsPickup[id >>> PAGE_BITS][id & PAGE_MASK] = timestamp;
+        final PickupRequest source = getSource(id);
+        if (null != source) {
+            source.setTimestampPickup(timestamp);
+        }
+    }
+
+    void setTimestampDropoff(final int id, final double timestamp) {
+        timestampsDropoff[id >>> PAGE_BITS][id & PAGE_MASK] = timestamp;
+        final PickupRequest source = getSource(id);
+        if (null != source) {
+            source.setTimestampDropoff(timestamp);
+        }
+    }
+
+    private PickupRequest getSource(final int id) {
+        final PickupRequest[] page = sources[id >>> PAGE_BITS];
+        return (null == page) ? null : page[id & PAGE_MASK];
+    }
+
+    /**
+     * Removes a rider from the store (and drops the request it arrived as), so its id can be reused.
+     *
+     * @param id the rider
+     */
+    void release(final int id) {
+        final PickupRequest[] page = sources[id >>> PAGE_BITS];
+        if (null != page) {
+            page[id & PAGE_MASK] = null;
+        }
+        if (releasedCount == releasedIds.length) {
+            releasedIds = Arrays.copyOf(releasedIds, Math.max(16, releasedIds.length * 2));
+        }
+        releasedIds[releasedCount++] = id;
+    }
+
+    /**
+     * Writes a rider to a checkpoint, in the same format as {@link PickupRequest}.
+     *
+     * @param id the rider
+     * @param output the checkpoint being written
+     * @throws IOException if the checkpoint can not be written
+     */
+    void writeRider(final int id, final DataOutput output) throws IOException {
+        output.writeInt(getStartingFloor(id));
+        output.writeInt(getDirection(id));
+        output.writeDouble(getTimestamp(id));
+        output.writeDouble(getTimestampPickup(id));
+        output.writeDouble(getTimestampDropoff(id));
+    }
+
+    /**
+     * @param input the checkpoint being read
+     * @return the id of a rider written by {@link #writeRider(int, DataOutput)}
+     * @throws IOException if the checkpoint can not be read
+     */
+    int readRider(final DataInput input) throws IOException {
+        final int startingFloor = input.readInt();
+        final int id = add(startingFloor, startingFloor + input.readInt(), input.readDouble());
+        timestampsPickup[id >>> PAGE_BITS][id & PAGE_MASK] = input.readDouble();
+        timestampsDropoff[id >>> PAGE_BITS][id & PAGE_MASK] = input.readDouble();
+        return id;
+    }
+}
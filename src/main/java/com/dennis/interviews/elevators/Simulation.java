@@ -1,10 +1,16 @@
 package com.dennis.interviews.elevators;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +18,9 @@ import org.slf4j.LoggerFactory;
 import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
 import com.dennis.interviews.elevators.pickup.AbstractPickupRequestGenerator;
 import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+import com.dennis.interviews.elevators.recorder.EventRecorder;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+import com.dennis.interviews.elevators.statistics.RiderStatistics;
 
 /**
  * First pass at creating a simulation.  I did not get an opportunity to re-factor out the code (please see
@@ -26,16 +35,74 @@ public final class Simulation {
         FINISHED;
     }
 
+    /**
+     * How the simulation clock is advanced by {@link Simulation#simulate(TimeAdvance)}.
+     */
+    public static enum TimeAdvance {
+        /**
+         * Advances the clock by a fixed increment, visiting every elevator on every increment.
+         */
+        FIXED_INCREMENT,
+        /**
+         * Jumps the clock over increments in which nothing can happen, straight to the increment of the next event.
+         */
+        NEXT_EVENT;
+    }
+
+    /**
+     * How time and positions are represented while the simulation runs.
+     */
+    public static enum Clock {
+        /**
+         * Time in seconds and positions in floors, as doubles.
+         */
+        FLOATING_POINT,
+        /**
+         * Time in integer milliseconds and positions in integer millifloors, so floor crossings are exact integer
+         * comparisons and long runs can not drift.  Speeds are rounded to whole millifloors per second, and time
+         * increments must be whole milliseconds.
+         */
+        FIXED_POINT;
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(Simulation.class);
 
+    /**
+     * Identifies a checkpoint written by {@link #writeCheckpoint(OutputStream)} ("ELEV"), followed by its version.
+     */
+    private static final int CHECKPOINT_MAGIC = 0x454C4556;
+    private static final int CHECKPOINT_VERSION = 3;
+
     private final List<AbstractElevator> listElevators = new ArrayList<>();
-    private final List<PickupRequest> listPickupRequests;
+    private final Iterator<PickupRequest> arrivals;
     private final AbstractElevatorScheduler scheduler;
-    private final Map<Integer, List<PickupRequest>> mapActiveRequestsByFloor = new HashMap<>();
+    private final RiderStore riderStore = new RiderStore();
+    private final FloorQueues floorQueues = new FloorQueues(riderStore);
+    private final HallCallClaims hallCallClaims = new HallCallClaims();
+    private final RiderStatistics riderStatistics = new RiderStatistics();
+    private boolean retainServicedRequests = true;
+    private EventRecorder eventRecorder = null;
+
+    /**
+     * The idle elevators, as a bitset indexed by elevator id that the elevators update as they change state, so the
+     * schedulers and the termination check do not need to look at every elevator.
+     */
+    private long[] idleElevators = new long[0];
+    private int idleElevatorCount = 0;
+    private final List<AbstractElevator> listIdleElevators = new ArrayList<>();
+    private final List<AbstractElevator> readOnlyIdleElevators = Collections.unmodifiableList(listIdleElevators);
 
     private State state = State.NOT_STARTED;
+    private Clock clock = Clock.FLOATING_POINT;
     private static final double TIMESTAMP_INCREMENT = 1.0;
     private double currentTimestamp = 0.0;
+    private long iterationCount = 0L;
+    private PickupRequest nextArrival = null;
+    /**
+     * How many riders have been taken from the arrivals so far (including the next arrival), so a restored checkpoint
+     * knows how many to skip.
+     */
+    private long arrivalsConsumed = 0L;
 
     @SuppressWarnings("unused")
     private Simulation() {
@@ -49,9 +116,7 @@ public final class Simulation {
      * @param pickupRequests the pickup requests / passengers to service
      */
     public Simulation(final List<AbstractElevator> elevators, final List<PickupRequest> pickupRequests) {
-        this.scheduler = null;
-        listPickupRequests = pickupRequests;
-        initialize(elevators);
+        this(elevators, sortByTimestamp(pickupRequests).iterator(), null);
     }
 
     /**
@@ -63,49 +128,193 @@ public final class Simulation {
      */
     public Simulation(final List<AbstractElevator> elevators, final List<PickupRequest> pickupRequests,
             final AbstractElevatorScheduler scheduler) {
+        this(elevators, sortByTimestamp(pickupRequests).iterator(), scheduler);
+    }
+
+    /**
+     * Constructor used for streaming pickup requests into the simulation.  Requests are pulled from the given
+     * source only when the simulated time reaches them, so the source never has to be held in memory.
+     *
+     * @param elevators the elevators to simulate
+     * @param arrivals the pickup requests / passengers to service, in timestamp order
+     * @param scheduler the elevator scheduler to use to schedule idle elevators (may be null)
+     */
+    public Simulation(final List<AbstractElevator> elevators, final Iterator<PickupRequest> arrivals,
+            final AbstractElevatorScheduler scheduler) {
         this.scheduler = scheduler;
-        listPickupRequests = pickupRequests;
+        this.arrivals = arrivals;
         initialize(elevators);
     }
 
+    /**
+     * Makes a copy of the pickup requests in timestamp order.  The sort is stable, so requests with the same
+     * timestamp keep their original order.
+     *
+     * @param pickupRequests the pickup requests to sort
+     * @return a sorted copy of the pickup requests
+     */
+    private static List<PickupRequest> sortByTimestamp(final List<PickupRequest> pickupRequests) {
+        final List<PickupRequest> sortedRequests = new ArrayList<>(pickupRequests);
+        Collections.sort(sortedRequests, new Comparator<PickupRequest>() {
+            @Override
+            public int compare(final PickupRequest a, final PickupRequest b) {
+                return Double.compare(a.getTimestamp(), b.getTimestamp());
+            }
+        });
+
+        return sortedRequests;
+    }
+
     private void initialize(final List<AbstractElevator> elevators) {
+        idleElevators = new long[(elevators.size() + Long.SIZE - 1) / Long.SIZE];
         for (AbstractElevator elevator : elevators) {
             elevator.setSimulation(this);
+            elevator.setId(listElevators.size());
             listElevators.add(elevator);
-        }
-
-        for (PickupRequest pickupRequest : listPickupRequests) {
-            if (null == mapActiveRequestsByFloor.get(pickupRequest.getStartingFloor())) {
-                mapActiveRequestsByFloor.put(pickupRequest.getStartingFloor(), new LinkedList<>());
+            if (AbstractElevator.State.IDLE == elevator.getState()) {
+                markIdle(elevator.getId(), true);
             }
-
-            mapActiveRequestsByFloor.get(pickupRequest.getStartingFloor()).add(pickupRequest);
+            floorQueues.ensureFloor((int) Math.floor(elevator.getMinFloor()));
+            floorQueues.ensureFloor((int) Math.ceil(elevator.getMaxFloor()));
         }
 
+        nextArrival = pullNextArrival();
+
         if (null != scheduler) {
             scheduler.setSimulation(this);
         }
     }
 
+    /**
+     * Constructor for a building of identical elevators, scheduled with a
+     * {@link GreedyMinimizeEmptyElevatorScheduler} so the riders are served.
+     *
+     * @param numElevators the number of elevators to simulate
+     * @param pickupRequests the pickup requests / passengers to service
+     */
     public Simulation(final int numElevators, final List<PickupRequest> pickupRequests) {
+        this(createElevators(numElevators), sortByTimestamp(pickupRequests).iterator(),
+                new GreedyMinimizeEmptyElevatorScheduler());
+    }
+
+    private static List<AbstractElevator> createElevators(final int numElevators) {
+        final List<AbstractElevator> elevators = new ArrayList<>(numElevators);
         for (int counter = 0; counter < numElevators; counter++) {
-            listElevators.add(new OpportunisticElevator(String.format("Elevator-%d", counter + 1)));
+            elevators.add(new OpportunisticElevator(String.format("Elevator-%d", counter + 1)));
         }
 
-        listPickupRequests = pickupRequests;
-        this.scheduler = null;
+        return elevators;
     }
 
     public final void simulate() {
+        simulate(TimeAdvance.FIXED_INCREMENT);
+    }
+
+    public final void simulate(final TimeAdvance timeAdvance) {
         if (currentTimestamp > 0.0) {
             throw new IllegalStateException("Simulation has already been started -- can not restart.");
         }
 
-        state = State.RUNNING;
+        simulateUntil(Double.POSITIVE_INFINITY, timeAdvance);
+    }
 
-        while (State.FINISHED != state) {
-            incrementTime(TIMESTAMP_INCREMENT);
+    /**
+     * Runs the simulation (starting it, or resuming it, e.g. after {@link #restoreCheckpoint(InputStream)}) until it
+     * either finishes or reaches the given timestamp, so it can be checkpointed along the way.
+     *
+     * @param stopTimestamp the timestamp to stop at (rounded down to a whole increment)
+     * @param timeAdvance how to advance the simulation clock
+     * @return the state of the simulation when it stopped
+     */
+    public final State simulateUntil(final double stopTimestamp, final TimeAdvance timeAdvance) {
+        state = (State.FINISHED == state) ? State.FINISHED : State.RUNNING;
+
+        final double alignedStopTimestamp = Math.floor(stopTimestamp / TIMESTAMP_INCREMENT) * TIMESTAMP_INCREMENT;
+        while ((State.FINISHED != state) && (currentTimestamp < alignedStopTimestamp)) {
+            if (TimeAdvance.NEXT_EVENT == timeAdvance) {
+                advanceToNextEvent(alignedStopTimestamp);
+            } else {
+                incrementTime(TIMESTAMP_INCREMENT);
+            }
         }
+
+        return state;
+    }
+
+    /**
+     * Advances the simulation through the next increment in which an event occurs.  All the increments before it are
+     * uneventful, so they are merged into a single jump.  The eventful increment itself is processed exactly like
+     * the fixed increment engine would, which is what keeps the results of both engines the same.
+     *
+     * @param stopTimestamp the simulation never jumps past this timestamp
+     */
+    private void advanceToNextEvent(final double stopTimestamp) {
+        final double nextEventTimestamp = getNextEventTimestamp();
+        if (!Double.isInfinite(nextEventTimestamp)) {
+            //  Stop a full increment short of the event, so rounding errors can never pull the event into the jump.
+            final double jumpTimestamp = Math.min(stopTimestamp - TIMESTAMP_INCREMENT,
+                    (Math.floor(nextEventTimestamp / TIMESTAMP_INCREMENT) - 1.0) * TIMESTAMP_INCREMENT);
+            if (jumpTimestamp > currentTimestamp) {
+                LOG.debug("Jumping from timestamp={} to timestamp={} ahead of an event at timestamp={}",
+                        new Object[] { currentTimestamp, jumpTimestamp, nextEventTimestamp });
+                jumpTime(jumpTimestamp - currentTimestamp);
+            }
+        } else if (hasPickupRequestsRemaining() || !areAllElevatorsIdle()) {
+            throw new IllegalStateException(String.format(
+                    "Simulation can not make progress at timestamp=%f -- nothing left to happen.", currentTimestamp));
+        }
+
+        incrementTime(TIMESTAMP_INCREMENT);
+    }
+
+    /**
+     * Finds the earliest of the next event of every busy elevator (a floor crossing or the doors closing), the next
+     * arrival, and a scheduler wakeup.  The scheduler only needs to wake up while there are idle elevators and hall
+     * calls without an elevator on their way.
+     *
+     * @return when the next event happens, or positive infinity if nothing is left to happen
+     */
+    private double getNextEventTimestamp() {
+        if ((null != scheduler) && (idleElevatorCount > 0) && (floorQueues.getWaitingCount() > 0)
+                && scheduler.hasUnclaimedHallCalls()) {
+            return currentTimestamp;
+        }
+
+        double nextEventTimestamp = (null == nextArrival) ? Double.POSITIVE_INFINITY : nextArrival.getTimestamp();
+        for (AbstractElevator elevator : listElevators) {
+            if (AbstractElevator.State.IDLE != elevator.getState()) {
+                nextEventTimestamp = Math.min(nextEventTimestamp, currentTimestamp + elevator.getTimeUntilNextEvent());
+            }
+        }
+
+        return nextEventTimestamp;
+    }
+
+    /**
+     * Advances every elevator over a stretch of time in which nothing happens to any of them.
+     *
+     * @param timeIncrement the amount of time to advance the simulation by
+     */
+    private void jumpTime(final double timeIncrement) {
+        iterationCount++;
+        for (AbstractElevator elevator : listElevators) {
+            elevator.incrementTime(timeIncrement);
+        }
+
+        currentTimestamp = getTimestampAfter(timeIncrement);
+    }
+
+    /**
+     * @param timeIncrement the amount of time to advance the simulation by
+     * @return the timestamp once the simulation has been advanced, on the millisecond grid for a fixed point clock
+     */
+    private double getTimestampAfter(final double timeIncrement) {
+        if (Clock.FIXED_POINT == clock) {
+            return FixedPoint.toSeconds(
+                    FixedPoint.toMillis(currentTimestamp) + FixedPoint.toWholeMillis(timeIncrement));
+        }
+
+        return currentTimestamp + timeIncrement;
     }
 
     public final State getState() {
@@ -117,7 +326,9 @@ public final class Simulation {
             throw new IllegalStateException("Simulation has already finished!");
         }
 
-        double newTimestamp = currentTimestamp + timeIncrement;
+        iterationCount++;
+        double newTimestamp = getTimestampAfter(timeIncrement);
+        injectArrivals(newTimestamp);
         if (null != scheduler) {
             scheduler.scheduleElevators(currentTimestamp, timeIncrement);
         }
@@ -135,46 +346,353 @@ public final class Simulation {
         }
     }
 
-    private boolean hasPickupRequestsRemaining() {
-        boolean remaining = false;
-        for (Map.Entry<Integer, List<PickupRequest>> entry : mapActiveRequestsByFloor.entrySet()) {
-            remaining = remaining || (!entry.getValue().isEmpty());
+    /**
+     * @return the next rider from the arrival source, or null if there are no more
+     */
+    private PickupRequest pullNextArrival() {
+        if (!arrivals.hasNext()) {
+            return null;
+        }
+
+        arrivalsConsumed++;
+        return arrivals.next();
+    }
+
+    /**
+     * Moves every pickup request that arrives before the given timestamp from the arrival source into the queue of
+     * its floor.
+     *
+     * @param timestamp the end of the time increment about to be simulated
+     */
+    private void injectArrivals(final double timestamp) {
+        while ((null != nextArrival) && (nextArrival.getTimestamp() < timestamp)) {
+            floorQueues.add(nextArrival);
+
+            final PickupRequest previousArrival = nextArrival;
+            nextArrival = pullNextArrival();
+            if ((null != nextArrival) && (nextArrival.getTimestamp() < previousArrival.getTimestamp())) {
+                throw new IllegalStateException(String.format(
+                        "Arrivals must be in timestamp order, but %s arrived after %s", nextArrival, previousArrival));
+            }
         }
+    }
 
-        return remaining;
+    private boolean hasPickupRequestsRemaining() {
+        return (floorQueues.getWaitingCount() > 0) || (null != nextArrival);
     }
 
     private final boolean areAllElevatorsIdle() {
-        boolean isIdle = true;
-        for (AbstractElevator elevator : listElevators) {
-            isIdle = isIdle && (elevator.getState() == AbstractElevator.State.IDLE);
+        return idleElevatorCount == listElevators.size();
+    }
+
+    /**
+     * Called by the elevators whenever they change state.
+     *
+     * @param elevator the elevator that changed state
+     * @param oldState the state it was in
+     * @param newState the state it is in now
+     */
+    final void onElevatorStateChanged(final AbstractElevator elevator, final AbstractElevator.State oldState,
+            final AbstractElevator.State newState) {
+        if (AbstractElevator.State.IDLE == oldState) {
+            markIdle(elevator.getId(), false);
+        } else if (AbstractElevator.State.IDLE == newState) {
+            markIdle(elevator.getId(), true);
+            hallCallClaims.release(elevator.getId());
         }
+    }
 
-        return isIdle;
+    /**
+     * Called by the elevators when they reach a floor, before anybody gets on or off.
+     *
+     * @param elevator the elevator
+     * @param floor the floor that was reached
+     */
+    final void onElevatorReachedFloor(final AbstractElevator elevator, final int floor) {
+        hallCallClaims.release(elevator.getId(), floor);
+    }
+
+    private void markIdle(final int elevatorId, final boolean isIdle) {
+        final long mask = 1L << elevatorId;
+        final int wordIndex = elevatorId >>> 6;
+        if (isIdle && (0L == (idleElevators[wordIndex] & mask))) {
+            idleElevators[wordIndex] |= mask;
+            idleElevatorCount++;
+        } else if (!isIdle && (0L != (idleElevators[wordIndex] & mask))) {
+            idleElevators[wordIndex] &= ~mask;
+            idleElevatorCount--;
+        }
     }
 
     public final double getCurrentTimestamp() {
         return currentTimestamp;
     }
 
-    public final Map<Integer, List<PickupRequest>> getMapActiveRequestsByFloor() {
-        return mapActiveRequestsByFloor;
+    /**
+     * @return how many times the simulation clock has been advanced so far
+     */
+    public final long getIterationCount() {
+        return iterationCount;
+    }
+
+    /**
+     * @return the elevators being simulated
+     */
+    public final List<AbstractElevator> getElevators() {
+        return Collections.unmodifiableList(listElevators);
+    }
+
+    /**
+     * @return a read-only view of the riders waiting on each floor
+     */
+    public final FloorQueues getFloorQueues() {
+        return floorQueues;
+    }
+
+    /**
+     * @return the riders in the building (plus the riders dropped off, if they are being retained), to look up the
+     *         rider ids in the floor queues
+     */
+    public final RiderStore getRiderStore() {
+        return riderStore;
+    }
+
+    /**
+     * @return a read-only view of which elevator has been dispatched to each hall call
+     */
+    public final HallCallClaims getHallCallClaims() {
+        return hallCallClaims;
+    }
+
+    /**
+     * @return the wait and ride times of every rider dropped off so far
+     */
+    public final RiderStatistics getRiderStatistics() {
+        return riderStatistics;
+    }
+
+    public final boolean isRetainingServicedRequests() {
+        return retainServicedRequests;
+    }
+
+    /**
+     * Whether the elevators keep every rider they dropped off in {@link AbstractElevator#getServicedRequests()}.  Long
+     * simulations that only need the {@link #getRiderStatistics() statistics} should turn this off, so that memory
+     * does not grow with the number of riders.
+     *
+     * @param retainServicedRequests false to release the dropped off riders from the {@link RiderStore}
+     */
+    public final void setRetainServicedRequests(final boolean retainServicedRequests) {
+        this.retainServicedRequests = retainServicedRequests;
+    }
+
+    public final boolean isUpdatingPickupRequests() {
+        return riderStore.isKeepingPickupRequests();
+    }
+
+    /**
+     * Whether the {@link PickupRequest}s given to the simulation get their pickup and drop off timestamps filled in,
+     * and are the ones returned by {@link AbstractElevator#getActiveRequests()} and
+     * {@link AbstractElevator#getServicedRequests()}.  This is off by default, so the riders only take up the columns
+     * of the {@link RiderStore}, and the elevators return copies.
+     *
+     * @param updatePickupRequests true to keep and update the requests
+     */
+    public final void setUpdatePickupRequests(final boolean updatePickupRequests) {
+        if ((State.NOT_STARTED != state) || (0L != iterationCount)) {
+            throw new IllegalStateException("Can only choose to update the pickup requests before the simulation "
+                    + "starts.");
+        }
+
+        riderStore.setKeepingPickupRequests(updatePickupRequests);
+    }
+
+    public final Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets how time and positions are represented.  Switching to {@link Clock#FIXED_POINT} rounds the elevators'
+     * positions and speeds to the nearest millifloor.
+     *
+     * @param newClock the clock to run the simulation on
+     */
+    public final void setClock(final Clock newClock) {
+        if ((State.NOT_STARTED != state) || (0L != iterationCount)) {
+            throw new IllegalStateException("Can only change the clock of a simulation that has not started.");
+        }
+
+        clock = newClock;
+        for (AbstractElevator elevator : listElevators) {
+            elevator.setFixedPoint(Clock.FIXED_POINT == clock);
+        }
+    }
+
+    /**
+     * @return the recorder that traces the simulation, or null if it is not being traced
+     */
+    public final EventRecorder getEventRecorder() {
+        return eventRecorder;
+    }
+
+    /**
+     * Traces the elevator state changes, time increments and scheduling of this simulation.
+     *
+     * @param newEventRecorder the recorder to write the events to, or null to stop tracing
+     */
+    public final void setEventRecorder(final EventRecorder newEventRecorder) {
+        eventRecorder = newEventRecorder;
+    }
+
+    /**
+     * Called by the elevators when a rider is dropped off.
+     *
+     * @param elevator the elevator the rider got off
+     * @param riderId the rider, with its drop off timestamp filled in
+     */
+    final void onRiderDroppedOff(final AbstractElevator elevator, final int riderId) {
+        final double timestampPickup = riderStore.getTimestampPickup(riderId);
+        riderStatistics.record(timestampPickup - riderStore.getTimestamp(riderId),
+                riderStore.getTimestampDropoff(riderId) - timestampPickup);
+        if (retainServicedRequests) {
+            elevator.addServicedRider(riderId);
+        } else {
+            riderStore.release(riderId);
+        }
     }
 
     /**
-     * Convenient function to search for all the idle elevators at the current timestamp.
+     * @return the number of idle elevators
+     */
+    public final int getIdleElevatorCount() {
+        return idleElevatorCount;
+    }
+
+    /**
+     * Convenient function to list all the idle elevators at the current timestamp, in the order they were added to
+     * the simulation.  Only the idle elevators are visited, and the list is reused.
      *
-     * @return the list of idle elevators at the current timestamp
+     * @return a read-only list of the idle elevators at the current timestamp (overwritten by the next call)
      */
     public final List<AbstractElevator> getIdleElevators() {
-        List<AbstractElevator> listIdleElevators = new ArrayList<>();
+        listIdleElevators.clear();
+        for (int wordIndex = 0; wordIndex < idleElevators.length; wordIndex++) {
+            for (long word = idleElevators[wordIndex]; 0L != word; word &= word - 1) {
+                listIdleElevators.add(listElevators.get((wordIndex * Long.SIZE) + Long.numberOfTrailingZeros(word)));
+            }
+        }
+
+        return readOnlyIdleElevators;
+    }
+
+    /**
+     * Writes everything needed to resume the simulation later on:  the clock, the elevators (position, state and
+     * riders), the riders waiting on each floor, the hall calls the elevators have been dispatched to, the next
+     * arrival and the statistics so far.  The checkpoint only grows with the number of riders in the building (plus
+     * the serviced riders, if they are being retained), so it is cheap to take one every few simulated hours with
+     * {@link #simulateUntil(double, TimeAdvance)}.
+     *
+     * <p>The arrival source is not written -- only how far into it the simulation has read.  The scheduler and the
+     * event recorder are not written either.
+     *
+     * @param outputStream where to write the checkpoint (flushed, but not closed)
+     * @throws IOException if the checkpoint can not be written
+     */
+    public final void writeCheckpoint(final OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(CHECKPOINT_MAGIC);
+        output.writeInt(CHECKPOINT_VERSION);
+
+        output.writeInt(state.ordinal());
+        output.writeInt(clock.ordinal());
+        output.writeDouble(currentTimestamp);
+        output.writeLong(iterationCount);
+        output.writeBoolean(retainServicedRequests);
+        output.writeLong(arrivalsConsumed);
+        output.writeBoolean(null != nextArrival);
+        if (null != nextArrival) {
+            nextArrival.writeTo(output);
+        }
+
+        output.writeInt(listElevators.size());
+        for (AbstractElevator elevator : listElevators) {
+            output.writeUTF(elevator.getName());
+            elevator.writeState(output);
+        }
+
+        floorQueues.writeTo(output);
+        hallCallClaims.writeTo(output);
+        riderStatistics.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Restores a checkpoint written by {@link #writeCheckpoint(OutputStream)}, so the simulation can be resumed with
+     * {@link #simulateUntil(double, TimeAdvance)}.  The simulation must be freshly built with the same elevators (by
+     * name, in the same order), the same {@link Clock}, and an arrival source that replays the same riders, e.g. a
+     * generator with the same seed.  The riders that were already read before the checkpoint are skipped.
+     *
+     * @param inputStream where to read the checkpoint from (should be buffered, and is not closed)
+     * @throws IOException if the checkpoint can not be read, or does not match this simulation
+     */
+    public final void restoreCheckpoint(final InputStream inputStream) throws IOException {
+        if ((State.NOT_STARTED != state) || (0L != iterationCount)) {
+            throw new IllegalStateException("Can only restore a checkpoint into a simulation that has not started.");
+        }
+
+        final DataInputStream input = new DataInputStream(inputStream);
+        if (CHECKPOINT_MAGIC != input.readInt()) {
+            throw new IOException("Not a simulation checkpoint.");
+        }
+        final int version = input.readInt();
+        if (CHECKPOINT_VERSION != version) {
+            throw new IOException("Unsupported checkpoint version: " + version);
+        }
+
+        final int stateOrdinal = input.readInt();
+        if ((stateOrdinal < 0) || (stateOrdinal >= State.values().length)) {
+            throw new IOException("Invalid simulation state: " + stateOrdinal);
+        }
+        final int clockOrdinal = input.readInt();
+        if (clock.ordinal() != clockOrdinal) {
+            throw new IOException(String.format("Checkpoint was written with clock %d, but the simulation uses %s.",
+                    clockOrdinal, clock));
+        }
+        state = State.values()[stateOrdinal];
+        currentTimestamp = input.readDouble();
+        iterationCount = input.readLong();
+        retainServicedRequests = input.readBoolean();
+
+        final long savedArrivalsConsumed = input.readLong();
+        if (arrivalsConsumed > savedArrivalsConsumed) {
+            throw new IOException("The arrivals do not match the checkpoint.");
+        }
+        while (arrivalsConsumed < savedArrivalsConsumed) {
+            if (null == pullNextArrival()) {
+                throw new IOException(String.format("The arrivals ran out after %d riders, but the checkpoint had "
+                        + "read %d.", arrivalsConsumed, savedArrivalsConsumed));
+            }
+        }
+        nextArrival = input.readBoolean() ? PickupRequest.readFrom(input) : null;
+
+        final int numberOfElevators = input.readInt();
+        if (numberOfElevators != listElevators.size()) {
+            throw new IOException(String.format("Checkpoint has %d elevators, but the simulation has %d.",
+                    numberOfElevators, listElevators.size()));
+        }
         for (AbstractElevator elevator : listElevators) {
-            if (elevator.getState() == AbstractElevator.State.IDLE) {
-                listIdleElevators.add(elevator);
+            final String name = input.readUTF();
+            if (!name.equals(elevator.getName())) {
+                throw new IOException(String.format("Checkpoint has Elevator(%s) where the simulation has "
+                        + "Elevator(%s).", name, elevator.getName()));
             }
+            elevator.readState(input);
+            markIdle(elevator.getId(), AbstractElevator.State.IDLE == elevator.getState());
         }
 
-        return listIdleElevators;
+        floorQueues.readFrom(input);
+        hallCallClaims.readFrom(input, listElevators.size());
+        riderStatistics.readFrom(input);
     }
 
     /**
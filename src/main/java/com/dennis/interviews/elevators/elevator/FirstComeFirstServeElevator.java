@@ -14,24 +14,22 @@ public class FirstComeFirstServeElevator extends AbstractElevator {
     }
 
     @Override
-    protected void processStateLoading(double timeIncrement) {
+    protected double processStateLoading(double timeIncrement) {
         throw new RuntimeException("Not implemented yet.");
     }
 
     @Override
-    protected void processStateIdle(double timeIncrement) {
+    protected double processStateIdle(double timeIncrement) {
         throw new RuntimeException("Not implemented yet.");
     }
 
     @Override
-    protected void processStateAscendingCrossFloors(double newPosition, double nextFloor, double timeIncrement,
-            double timeElapsedUntilCrossingFloors) {
+    protected void processStateAscendingCrossFloors(double nextFloor) {
         throw new RuntimeException("Not implemented yet.");
     }
 
     @Override
-    protected void processStateDescendingCrossFloors(double newPosition, double nextFloor, double timeIncrement,
-            double timeElapsedUntilCrossingFloors) {
+    protected void processStateDescendingCrossFloors(double nextFloor) {
         throw new RuntimeException("Not implemented yet.");
     }
 }
@@ -14,27 +14,27 @@ public class OpportunisticElevator extends AbstractElevator {
     }
 
     @Override
-    public void processStateAscendingCrossFloors(final double newPosition, final double nextFloor,
-            final double timeIncrement, final double timeElapsedUntilCrossingFloors) {
-        openElevatorDoors(newPosition, nextFloor, timeIncrement, timeElapsedUntilCrossingFloors);
+    public void processStateAscendingCrossFloors(final double nextFloor) {
+        openElevatorDoors(nextFloor);
     }
 
     @Override
-    public void processStateDescendingCrossFloors(final double newPosition, final double nextFloor,
-            final double timeIncrement, final double timeElapsedUntilCrossingFloors) {
-        openElevatorDoors(newPosition, nextFloor, timeIncrement, timeElapsedUntilCrossingFloors);
+    public void processStateDescendingCrossFloors(final double nextFloor) {
+        openElevatorDoors(nextFloor);
     }
 
     @Override
-    public void processStateLoading(double timeIncrement) {
-        double newTimeInCurrentState = getTimeInCurrentState() + timeIncrement;
+    public double processStateLoading(double timeIncrement) {
+        final double timeUntilFinishedLoading = Math.max(0.0, getPickupTimeRequired() - getTimeInCurrentState());
 
-        if (newTimeInCurrentState < getPickupTimeRequired()) {
+        if (timeIncrement < timeUntilFinishedLoading - TIME_EPSILON) {
             incrementTimeInCurrentState(timeIncrement);
-            return;
+            return 0.0;
         }
 
-        double timeAfterFinishedLoading = newTimeInCurrentState - getPickupTimeRequired();
+        //  The doors close part way through the increment, and the elevator moves on for the rest of it.
+        final double timeLoading = Math.min(timeIncrement, timeUntilFinishedLoading);
+        incrementTimeInCurrentState(timeLoading);
         if (getTargetFloor() > getCurrentPosition()) {
             setState(State.ASCENDING);
         } else if (getTargetFloor() < getCurrentPosition()) {
@@ -43,11 +43,12 @@ public class OpportunisticElevator extends AbstractElevator {
             setState(State.IDLE);
         }
 
-        incrementTime(timeAfterFinishedLoading);
+        return timeIncrement - timeLoading;
     }
 
     @Override
-    public void processStateIdle(double timeIncrement) {
+    public double processStateIdle(double timeIncrement) {
         incrementTimeInCurrentState(timeIncrement);
+        return 0.0;
     }
 }
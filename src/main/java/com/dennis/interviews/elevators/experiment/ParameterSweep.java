@@ -0,0 +1,238 @@
+package com.dennis.interviews.elevators.experiment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+
+/**
+ * Runs a grid of experiments, i.e. every combination of number of elevators, scheduler and arrival rate, with all the
+ * cells (and their replications) sharing one fork-join pool so the concurrency stays bounded.  Every cell uses the
+ * same master seed, so cells with the same arrival rate see exactly the same riders (common random numbers), which
+ * makes the differences between elevator counts and schedulers stand out from the noise.
+ *
+ * @author dennislin
+ */
+public final class ParameterSweep {
+    private static final String HEADER = "elevators,scheduler,arrivalsPerHour,replications,serviced,"
+            + "meanWaitTime,waitTimeHalfWidth,meanRideTime,rideTimeHalfWidth";
+
+    private final int minFloor;
+    private final int maxFloor;
+    private final double experimentDurationInSeconds;
+    private int[] elevatorCounts = new int[] { 1 };
+    private List<Class<? extends AbstractElevatorScheduler>> schedulerClasses = Collections.emptyList();
+    private double[] arrivalsPerHour = new double[] { 60.0 };
+    private int numberOfReplications = 1;
+
+    /**
+     * @param minFloor the lowest floor of the building
+     * @param maxFloor the highest floor of the building
+     * @param experimentDurationInSeconds how long riders keep arriving in every simulation
+     */
+    public ParameterSweep(final int minFloor, final int maxFloor, final double experimentDurationInSeconds) {
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.experimentDurationInSeconds = experimentDurationInSeconds;
+    }
+
+    public void setElevatorCounts(final int... newElevatorCounts) {
+        for (int elevatorCount : newElevatorCounts) {
+            if (elevatorCount < 1) {
+                throw new IllegalArgumentException("Need at least one elevator: " + elevatorCount);
+            }
+        }
+        elevatorCounts = newElevatorCounts.clone();
+    }
+
+    /**
+     * @param newSchedulerClasses the schedulers to compare (each needs a public no-argument constructor)
+     */
+    public void setSchedulerClasses(final List<Class<? extends AbstractElevatorScheduler>> newSchedulerClasses) {
+        for (Class<? extends AbstractElevatorScheduler> schedulerClass : newSchedulerClasses) {
+            createScheduler(schedulerClass);
+        }
+        schedulerClasses = new ArrayList<>(newSchedulerClasses);
+    }
+
+    public void setArrivalsPerHour(final double... newArrivalsPerHour) {
+        for (double arrivals : newArrivalsPerHour) {
+            if (arrivals <= 0.0) {
+                throw new IllegalArgumentException("Arrival rate must be positive: " + arrivals);
+            }
+        }
+        arrivalsPerHour = newArrivalsPerHour.clone();
+    }
+
+    public void setNumberOfReplications(final int newNumberOfReplications) {
+        if (newNumberOfReplications < 1) {
+            throw new IllegalArgumentException("Need at least one replication: " + newNumberOfReplications);
+        }
+        numberOfReplications = newNumberOfReplications;
+    }
+
+    /**
+     * @return every cell of the grid, in the order the result rows are reported
+     */
+    public List<SweepCell> getCells() {
+        final List<SweepCell> cells = new ArrayList<>();
+        for (int elevatorCount : elevatorCounts) {
+            for (Class<? extends AbstractElevatorScheduler> schedulerClass : schedulerClasses) {
+                for (double arrivals : arrivalsPerHour) {
+                    cells.add(new SweepCell(elevatorCount, schedulerClass, arrivals));
+                }
+            }
+        }
+
+        return cells;
+    }
+
+    /**
+     * Runs every cell of the grid and writes one CSV row per cell to the output as soon as the cell finishes (so the
+     * rows are not necessarily in grid order).
+     *
+     * @param maxConcurrency the maximum number of simulations to run at the same time
+     * @param masterSeed the master seed for the replications of every cell
+     * @param output where to write the CSV result rows (including a header row)
+     * @return the results of every cell, in grid order
+     */
+    public Map<SweepCell, ReplicationReport> run(final int maxConcurrency, final long masterSeed,
+            final Writer output) {
+        final List<SweepCell> cells = getCells();
+        final ReplicationReport[] reports = new ReplicationReport[cells.size()];
+        writeRow(output, HEADER);
+
+        final ForkJoinPool pool = new ForkJoinPool(maxConcurrency);
+        try {
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    final List<RecursiveAction> tasks = new ArrayList<>();
+                    for (int counter = 0; counter < cells.size(); counter++) {
+                        tasks.add(new CellTask(pool, cells, reports, counter, masterSeed, output));
+                    }
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        final Map<SweepCell, ReplicationReport> results = new LinkedHashMap<>();
+        for (int counter = 0; counter < cells.size(); counter++) {
+            results.put(cells.get(counter), reports[counter]);
+        }
+
+        return results;
+    }
+
+    /**
+     * Creates the simulation for one replication of a cell.
+     */
+    private Simulation createSimulation(final SweepCell cell, final long seed) {
+        final List<AbstractElevator> listElevators = new ArrayList<>();
+        for (int counter = 0; counter < cell.getNumberOfElevators(); counter++) {
+            final AbstractElevator elevator = new OpportunisticElevator(String.format("Elevator-%d", counter + 1));
+            elevator.setMinFloor(minFloor);
+            elevator.setMaxFloor(maxFloor);
+            elevator.setCurrentPosition(minFloor);
+            listElevators.add(elevator);
+        }
+
+        return new Simulation(listElevators,
+                new RegularIntervalGenerator(minFloor, maxFloor, experimentDurationInSeconds, seed)
+                        .streamPickupRequests(cell.getArrivalsPerHour() / 3600.0, experimentDurationInSeconds),
+                createScheduler(cell.getSchedulerClass()));
+    }
+
+    private static AbstractElevatorScheduler createScheduler(
+            final Class<? extends AbstractElevatorScheduler> schedulerClass) {
+        try {
+            return schedulerClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can not instantiate scheduler " + schedulerClass.getName(), e);
+        }
+    }
+
+    private static String formatRow(final SweepCell cell, final ReplicationReport report) {
+        return String.format(Locale.ROOT, "%d,%s,%f,%d,%d,%f,%f,%f,%f",
+                cell.getNumberOfElevators(), cell.getSchedulerClass().getSimpleName(), cell.getArrivalsPerHour(),
+                report.getNumberOfReplications(), report.getNumberOfRidersServiced(), report.getMeanWaitTime(),
+                report.getWaitTimeConfidenceHalfWidth(), report.getMeanRideTime(),
+                report.getRideTimeConfidenceHalfWidth());
+    }
+
+    private static void writeRow(final Writer output, final String row) {
+        synchronized (output) {
+            try {
+                output.write(row);
+                output.write(System.lineSeparator());
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParameterSweep(floors=%d..%d, duration=%f, elevators=%s, schedulers=%s, "
+                        + "arrivalsPerHour=%s, replications=%d)",
+                minFloor, maxFloor, experimentDurationInSeconds, Arrays.toString(elevatorCounts), schedulerClasses,
+                Arrays.toString(arrivalsPerHour), numberOfReplications);
+    }
+
+    /**
+     * Runs all the replications of one cell (within the sweep's pool) and reports its row.
+     */
+    private final class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ForkJoinPool pool;
+        private final List<SweepCell> cells;
+        private final ReplicationReport[] reports;
+        private final int index;
+        private final long masterSeed;
+        private final Writer output;
+
+        CellTask(final ForkJoinPool pool, final List<SweepCell> cells, final ReplicationReport[] reports,
+                final int index, final long masterSeed, final Writer output) {
+            this.pool = pool;
+            this.cells = cells;
+            this.reports = reports;
+            this.index = index;
+            this.masterSeed = masterSeed;
+            this.output = output;
+        }
+
+        @Override
+        protected void compute() {
+            final SweepCell cell = cells.get(index);
+            final ReplicationRunner runner = new ReplicationRunner(new SimulationFactory() {
+                @Override
+                public Simulation createSimulation(final long seed) {
+                    return ParameterSweep.this.createSimulation(cell, seed);
+                }
+            }, pool);
+
+            reports[index] = runner.run(numberOfReplications, masterSeed);
+            writeRow(output, formatRow(cell, reports[index]));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.dennis.interviews.elevators.experiment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+/**
+ * The aggregated results of all the replications of an experiment.  Every replication contributes one observation
+ * (e.g. its mean wait time), and the confidence intervals are Student's t intervals around the mean of those
+ * observations.
+ *
+ * @author dennislin
+ */
+public final class ReplicationReport {
+    private final List<ReplicationResult> results;
+    private final double confidenceLevel;
+    private final SummaryStatistics meanWaitTimes = new SummaryStatistics();
+    private final SummaryStatistics meanRideTimes = new SummaryStatistics();
+    private long numberOfRidersServiced = 0L;
+
+    ReplicationReport(final ReplicationResult[] results, final double confidenceLevel) {
+        this.results = Collections.unmodifiableList(Arrays.asList(results));
+        this.confidenceLevel = confidenceLevel;
+
+        for (ReplicationResult result : results) {
+            numberOfRidersServiced += result.getNumberOfRidersServiced();
+            //  A replication without any serviced riders has no wait time to contribute.
+            if (result.getNumberOfRidersServiced() > 0) {
+                meanWaitTimes.addValue(result.getMeanWaitTime());
+                meanRideTimes.addValue(result.getMeanRideTime());
+            }
+        }
+    }
+
+    /**
+     * @return the result of each replication, in replication order
+     */
+    public List<ReplicationResult> getResults() {
+        return results;
+    }
+
+    public int getNumberOfReplications() {
+        return results.size();
+    }
+
+    public double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+
+    public long getNumberOfRidersServiced() {
+        return numberOfRidersServiced;
+    }
+
+    public double getMeanWaitTime() {
+        return meanWaitTimes.getMean();
+    }
+
+    public double getWaitTimeConfidenceHalfWidth() {
+        return calculateConfidenceHalfWidth(meanWaitTimes);
+    }
+
+    public double getMeanRideTime() {
+        return meanRideTimes.getMean();
+    }
+
+    public double getRideTimeConfidenceHalfWidth() {
+        return calculateConfidenceHalfWidth(meanRideTimes);
+    }
+
+    /**
+     * @param statistics one observation per replication
+     * @return half the width of the confidence interval around the mean, or NaN with fewer than two observations
+     */
+    private double calculateConfidenceHalfWidth(final SummaryStatistics statistics) {
+        if (statistics.getN() < 2) {
+            return Double.NaN;
+        }
+
+        final TDistribution distribution = new TDistribution(statistics.getN() - 1);
+        final double criticalValue = distribution.inverseCumulativeProbability(1.0 - (1.0 - confidenceLevel) / 2.0);
+
+        return criticalValue * statistics.getStandardDeviation() / Math.sqrt(statistics.getN());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplicationReport(replications=%d, serviced=%d, "
+                        + "meanWait=%f +/- %f, meanRide=%f +/- %f, confidence=%.2f)",
+                getNumberOfReplications(), numberOfRidersServiced,
+                getMeanWaitTime(), getWaitTimeConfidenceHalfWidth(),
+                getMeanRideTime(), getRideTimeConfidenceHalfWidth(), confidenceLevel);
+    }
+}
@@ -0,0 +1,95 @@
+package com.dennis.interviews.elevators.experiment;
+
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.statistics.LogHistogram;
+import com.dennis.interviews.elevators.statistics.RiderStatistics;
+
+/**
+ * The rider statistics of a single, finished replication (a replication runs until every rider has been dropped
+ * off, so every rider is serviced).
+ *
+ * @author dennislin
+ */
+public final class ReplicationResult {
+    private final int replication;
+    private final long seed;
+    private final double simulatedDuration;
+    private final long numberOfRidersServiced;
+    private final double meanWaitTime;
+    private final double p95WaitTime;
+    private final double maxWaitTime;
+    private final double meanRideTime;
+    private final double maxRideTime;
+
+    ReplicationResult(final int replication, final long seed, final Simulation simulation) {
+        this.replication = replication;
+        this.seed = seed;
+        this.simulatedDuration = simulation.getCurrentTimestamp();
+
+        final RiderStatistics riderStatistics = simulation.getRiderStatistics();
+        final LogHistogram waitTimes = riderStatistics.getWaitTimes();
+        final LogHistogram rideTimes = riderStatistics.getRideTimes();
+        this.numberOfRidersServiced = riderStatistics.getNumberOfRiders();
+        this.meanWaitTime = waitTimes.getMean();
+        this.p95WaitTime = waitTimes.getValueAtPercentile(95.0);
+        this.maxWaitTime = waitTimes.getMax();
+        this.meanRideTime = rideTimes.getMean();
+        this.maxRideTime = rideTimes.getMax();
+    }
+
+    public int getReplication() {
+        return replication;
+    }
+
+    /**
+     * @return the seed the replication was run with (to replay it)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getSimulatedDuration() {
+        return simulatedDuration;
+    }
+
+    public long getNumberOfRidersServiced() {
+        return numberOfRidersServiced;
+    }
+
+    /**
+     * @return the average time from arriving at the elevator until the doors closed behind the rider
+     */
+    public double getMeanWaitTime() {
+        return meanWaitTime;
+    }
+
+    /**
+     * @return the 95th percentile of the wait times (to within the precision of the histogram)
+     */
+    public double getP95WaitTime() {
+        return p95WaitTime;
+    }
+
+    public double getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    /**
+     * @return the average time from the doors closing behind the rider until they were dropped off
+     */
+    public double getMeanRideTime() {
+        return meanRideTime;
+    }
+
+    public double getMaxRideTime() {
+        return maxRideTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplicationResult(replication=%d, seed=%d, duration=%f, serviced=%d, meanWait=%f, "
+                        + "p95Wait=%f, maxWait=%f, meanRide=%f, maxRide=%f)",
+                replication, seed, simulatedDuration, numberOfRidersServiced,
+                meanWaitTime, p95WaitTime, maxWaitTime, meanRideTime, maxRideTime);
+    }
+}
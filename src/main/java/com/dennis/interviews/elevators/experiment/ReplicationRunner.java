@@ -0,0 +1,134 @@
+package com.dennis.interviews.elevators.experiment;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dennis.interviews.elevators.Simulation;
+
+/**
+ * Runs independent replications of the same simulation in parallel on a fork-join pool.  Every replication gets its
+ * own seed (derived from the master seed), so the whole experiment, or any single replication, can be replayed.
+ *
+ * @author dennislin
+ */
+public final class ReplicationRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicationRunner.class);
+    private static final double DEFAULT_CONFIDENCE_LEVEL = 0.95;
+
+    private final SimulationFactory simulationFactory;
+    private final ForkJoinPool pool;
+    private double confidenceLevel = DEFAULT_CONFIDENCE_LEVEL;
+    private Simulation.TimeAdvance timeAdvance = Simulation.TimeAdvance.NEXT_EVENT;
+
+    /**
+     * Creates a runner that uses the common fork-join pool (i.e. all the available cores).
+     *
+     * @param simulationFactory creates the simulation for each replication
+     */
+    public ReplicationRunner(final SimulationFactory simulationFactory) {
+        this(simulationFactory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param simulationFactory creates the simulation for each replication
+     * @param pool the pool to run the replications in
+     */
+    public ReplicationRunner(final SimulationFactory simulationFactory, final ForkJoinPool pool) {
+        this.simulationFactory = simulationFactory;
+        this.pool = pool;
+    }
+
+    public double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+
+    public void setConfidenceLevel(final double newConfidenceLevel) {
+        if ((newConfidenceLevel <= 0.0) || (newConfidenceLevel >= 1.0)) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1: " + newConfidenceLevel);
+        }
+        confidenceLevel = newConfidenceLevel;
+    }
+
+    public Simulation.TimeAdvance getTimeAdvance() {
+        return timeAdvance;
+    }
+
+    public void setTimeAdvance(final Simulation.TimeAdvance newTimeAdvance) {
+        timeAdvance = newTimeAdvance;
+    }
+
+    /**
+     * Runs the replications and waits for all of them to finish.
+     *
+     * @param numberOfReplications how many replications to run
+     * @param masterSeed the seed that the seed of every replication is derived from
+     * @return the aggregated results
+     */
+    public ReplicationReport run(final int numberOfReplications, final long masterSeed) {
+        if (numberOfReplications < 1) {
+            throw new IllegalArgumentException("Need at least one replication: " + numberOfReplications);
+        }
+
+        final SplittableRandom random = new SplittableRandom(masterSeed);
+        final long[] seeds = new long[numberOfReplications];
+        for (int counter = 0; counter < numberOfReplications; counter++) {
+            seeds[counter] = random.nextLong();
+        }
+
+        //  Each replication writes its own slot, so the results need no synchronization and stay in order.
+        final ReplicationResult[] results = new ReplicationResult[numberOfReplications];
+        final ReplicationTask task = new ReplicationTask(seeds, results, 0, numberOfReplications);
+        if (ForkJoinTask.getPool() == pool) {
+            //  Already running inside the pool (e.g. as part of a parameter sweep), so just fork from here.
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+
+        final ReplicationReport report = new ReplicationReport(results, confidenceLevel);
+        LOG.debug("Finished {} replications with masterSeed={}: {}",
+                new Object[] { numberOfReplications, masterSeed, report });
+
+        return report;
+    }
+
+    /**
+     * Runs a range of replications, splitting the range in half until a single replication is left.
+     */
+    private final class ReplicationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] seeds;
+        private final ReplicationResult[] results;
+        private final int start;
+        private final int end;
+
+        ReplicationTask(final long[] seeds, final ReplicationResult[] results, final int start, final int end) {
+            this.seeds = seeds;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new ReplicationTask(seeds, results, start, middle),
+                        new ReplicationTask(seeds, results, middle, end));
+                return;
+            }
+
+            final Simulation simulation = simulationFactory.createSimulation(seeds[start]);
+            //  Only the statistics are reported, so there is no need to hold on to every rider.
+            simulation.setRetainServicedRequests(false);
+            simulation.simulate(timeAdvance);
+            results[start] = new ReplicationResult(start, seeds[start], simulation);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dennis.interviews.elevators.experiment;
+
+import com.dennis.interviews.elevators.Simulation;
+
+/**
+ * Creates the simulation for one replication of an experiment.
+ *
+ * @author dennislin
+ */
+public interface SimulationFactory {
+    /**
+     * Creates a new simulation (with its own elevators, scheduler and pickup requests).  Implementations must not
+     * share any mutable state between simulations, since replications run concurrently.
+     *
+     * @param seed the seed for all the randomness in the simulation
+     * @return a simulation that has not been started yet
+     */
+    Simulation createSimulation(long seed);
+}
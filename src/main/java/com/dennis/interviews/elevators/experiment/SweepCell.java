@@ -0,0 +1,39 @@
+package com.dennis.interviews.elevators.experiment;
+
+import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+
+/**
+ * One combination of parameters in a {@link ParameterSweep}.
+ *
+ * @author dennislin
+ */
+public final class SweepCell {
+    private final int numberOfElevators;
+    private final Class<? extends AbstractElevatorScheduler> schedulerClass;
+    private final double arrivalsPerHour;
+
+    SweepCell(final int numberOfElevators, final Class<? extends AbstractElevatorScheduler> schedulerClass,
+            final double arrivalsPerHour) {
+        this.numberOfElevators = numberOfElevators;
+        this.schedulerClass = schedulerClass;
+        this.arrivalsPerHour = arrivalsPerHour;
+    }
+
+    public int getNumberOfElevators() {
+        return numberOfElevators;
+    }
+
+    public Class<? extends AbstractElevatorScheduler> getSchedulerClass() {
+        return schedulerClass;
+    }
+
+    public double getArrivalsPerHour() {
+        return arrivalsPerHour;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SweepCell(elevators=%d, scheduler=%s, arrivalsPerHour=%f)",
+                numberOfElevators, schedulerClass.getSimpleName(), arrivalsPerHour);
+    }
+}
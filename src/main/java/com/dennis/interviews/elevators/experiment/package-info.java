@@ -0,0 +1,5 @@
+/**
+ * Utilities for running simulations as statistical experiments, i.e. many independent, seeded replications of the
+ * same configuration whose results are aggregated into confidence intervals.
+ */
+package com.dennis.interviews.elevators.experiment;
@@ -3,32 +3,76 @@ package com.dennis.interviews.elevators.pickup;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
 
 import com.dennis.interviews.elevators.PickupRequest;
 
+/**
+ * Base class for generating pickup requests.  Every generator owns its own random number generator, so generators
+ * never contend with each other when running on different threads, and a generator created with a seed will always
+ * generate the same pickup requests.
+ *
+ * @author dennislin
+ */
 public abstract class AbstractPickupRequestGenerator {
+    private final SplittableRandom random;
+
+    /**
+     * Creates a generator with an arbitrary seed (i.e. the generated requests can not be replayed).
+     */
     protected AbstractPickupRequestGenerator() {
-        // Do nothing.
+        this(new SplittableRandom());
+    }
+
+    /**
+     * @param seed the seed for the random number generator, which determines all the generated requests
+     */
+    protected AbstractPickupRequestGenerator(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * @param random the random number generator to use (must not be shared with any other generator)
+     */
+    protected AbstractPickupRequestGenerator(final SplittableRandom random) {
+        this.random = random;
     }
 
+    /**
+     * Creates a generator with the same configuration as this one, but with a random number generator that is split
+     * off from this generator's.  The new generator is statistically independent of this one, so it can be used for
+     * another replication of an experiment (on another thread), and it is still determined by the original seed.
+     *
+     * @return the new generator
+     */
+    public abstract AbstractPickupRequestGenerator split();
+
     protected abstract int generateRandomFloor();
 
     protected abstract double generateRandomTimestamp();
 
+    /**
+     * @return the random number generator owned by this generator
+     */
+    protected final SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * @return a random number uniformly distributed in [0.0, 1.0)
+     */
+    protected final double generateRandomProbability() {
+        return random.nextDouble();
+    }
+
     public final List<PickupRequest> generatePickupRequests(int numberOfRequests) {
         ArrayList<PickupRequest> listPickupRequests = new ArrayList<>();
         for (int counter = 0; counter < numberOfRequests; counter++) {
-            int startingFloor = generateRandomFloor();
-            int endingFloor = generateRandomFloor();
-            double arrivalTime = generateRandomTimestamp();
-
-            while (endingFloor == startingFloor) {
-                startingFloor = generateRandomFloor();
-                endingFloor = generateRandomFloor();
-            }
-
-            PickupRequest pickupRequest = new PickupRequest(startingFloor, endingFloor - startingFloor, arrivalTime);
+            PickupRequest pickupRequest =
+                    createPickupRequest(generateRandomFloor(), generateRandomFloor(), generateRandomTimestamp());
             listPickupRequests.add(pickupRequest);
             System.out.println(pickupRequest.toString());
         }
@@ -57,4 +101,66 @@ public abstract class AbstractPickupRequestGenerator {
 
         return sortedList;
     }
+
+    /**
+     * Lazily generates pickup requests that arrive according to a Poisson process, i.e. the time between two
+     * arrivals is exponentially distributed.  Requests are generated one at a time, already in timestamp order, so
+     * they can be streamed straight into a simulation without being sorted or held in memory.
+     *
+     * @param arrivalsPerSecond the average number of arrivals per second
+     * @param experimentDurationInSeconds no requests will arrive at or after this timestamp
+     * @return the pickup requests, in timestamp order
+     */
+    public final Iterator<PickupRequest> streamPickupRequests(final double arrivalsPerSecond,
+            final double experimentDurationInSeconds) {
+        if (arrivalsPerSecond <= 0.0) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + arrivalsPerSecond);
+        }
+
+        return new Iterator<PickupRequest>() {
+            private double nextTimestamp = generateInterArrivalTime(arrivalsPerSecond);
+
+            @Override
+            public boolean hasNext() {
+                return nextTimestamp < experimentDurationInSeconds;
+            }
+
+            @Override
+            public PickupRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final double arrivalTime = nextTimestamp;
+                nextTimestamp += generateInterArrivalTime(arrivalsPerSecond);
+
+                return createPickupRequest(generateRandomFloor(), generateRandomFloor(), arrivalTime);
+            }
+        };
+    }
+
+    /**
+     * Draws the time until the next arrival of a Poisson process (using inverse transform sampling).
+     *
+     * @param arrivalsPerSecond the average number of arrivals per second
+     * @return the time until the next arrival
+     */
+    private double generateInterArrivalTime(final double arrivalsPerSecond) {
+        return -Math.log(1.0 - generateRandomProbability()) / arrivalsPerSecond;
+    }
+
+    /**
+     * Creates a pickup request, drawing new floors until the rider is actually going somewhere.
+     */
+    private PickupRequest createPickupRequest(final int startingFloor, final int endingFloor,
+            final double arrivalTime) {
+        int newStartingFloor = startingFloor;
+        int newEndingFloor = endingFloor;
+        while (newEndingFloor == newStartingFloor) {
+            newStartingFloor = generateRandomFloor();
+            newEndingFloor = generateRandomFloor();
+        }
+
+        return new PickupRequest(newStartingFloor, newEndingFloor - newStartingFloor, arrivalTime);
+    }
 }
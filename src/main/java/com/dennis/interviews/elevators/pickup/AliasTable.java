@@ -0,0 +1,106 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples from a discrete distribution with arbitrary weights in constant time, using Vose's alias method.  Every
+ * outcome gets a column with the same total probability; a column is filled by its own outcome up to a threshold and
+ * by a single other outcome (its alias) above it, so a sample is one random column plus one coin flip.  Building the
+ * table is linear in the number of outcomes.
+ *
+ * @author dennislin
+ */
+public final class AliasTable {
+    private final double[] thresholds;
+    private final int[] aliases;
+
+    /**
+     * @param weights the (relative) weight of every outcome, which must be non-negative and not all zero
+     */
+    public AliasTable(final double[] weights) {
+        final int size = weights.length;
+        if (0 == size) {
+            throw new IllegalArgumentException("There must be at least one outcome.");
+        }
+
+        double totalWeight = 0.0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and non-negative: " + weight);
+            }
+            totalWeight += weight;
+        }
+        if (0.0 == totalWeight) {
+            throw new IllegalArgumentException("At least one weight must be positive.");
+        }
+
+        thresholds = new double[size];
+        aliases = new int[size];
+
+        //  Scale the weights so the average column is 1, then pair every column below 1 with one above it.
+        final int[] small = new int[size];
+        final int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int outcome = 0; outcome < size; outcome++) {
+            thresholds[outcome] = weights[outcome] * size / totalWeight;
+            if (thresholds[outcome] < 1.0) {
+                small[smallCount++] = outcome;
+            } else {
+                large[largeCount++] = outcome;
+            }
+        }
+
+        while ((smallCount > 0) && (largeCount > 0)) {
+            final int lessLikely = small[--smallCount];
+            final int moreLikely = large[--largeCount];
+            aliases[lessLikely] = moreLikely;
+            thresholds[moreLikely] = (thresholds[moreLikely] + thresholds[lessLikely]) - 1.0;
+            if (thresholds[moreLikely] < 1.0) {
+                small[smallCount++] = moreLikely;
+            } else {
+                large[largeCount++] = moreLikely;
+            }
+        }
+
+        //  Whatever is left is 1 (give or take rounding errors), so it never needs its alias -- unless it is an
+        //  outcome that must never be drawn, which is sent to a possible outcome instead.
+        while (largeCount > 0) {
+            thresholds[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            final int outcome = small[--smallCount];
+            if (0.0 == weights[outcome]) {
+                thresholds[outcome] = 0.0;
+                aliases[outcome] = getAnyPossibleOutcome(weights);
+            } else {
+                thresholds[outcome] = 1.0;
+            }
+        }
+    }
+
+    private static int getAnyPossibleOutcome(final double[] weights) {
+        int outcome = 0;
+        while (0.0 == weights[outcome]) {
+            outcome++;
+        }
+
+        return outcome;
+    }
+
+    /**
+     * @return the number of outcomes
+     */
+    public int size() {
+        return thresholds.length;
+    }
+
+    /**
+     * @param random the random number generator to draw from
+     * @return an outcome, i.e. an index into the weights the table was built from
+     */
+    public int sample(final SplittableRandom random) {
+        final int column = random.nextInt(thresholds.length);
+        return (random.nextDouble() < thresholds[column]) ? column : aliases[column];
+    }
+}
@@ -0,0 +1,145 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.dennis.interviews.elevators.PickupRequest;
+
+/**
+ * Replays a trace written by {@link ArrivalTraceWriter} as a stream of riders for a simulation.  The file is memory
+ * mapped a window at a time, so the operating system pages the trace in (and out) as the simulation reads it, and
+ * riders are only created as the simulation pulls them -- the trace is never loaded onto the heap, no matter how
+ * many riders it has.
+ *
+ * <p>The simulation does not model the weight of riders (the elevator capacity counts riders), so the weight of the
+ * last rider returned by {@link #next()} is available from {@link #getWeight()} instead.
+ *
+ * @author dennislin
+ */
+public final class ArrivalTraceReader implements Iterator<PickupRequest>, Closeable {
+    /**
+     * How much of the file is mapped at once (rounded down to whole records).
+     */
+    private static final long WINDOW_SIZE_IN_BYTES = 1L << 28;
+
+    private final FileChannel channel;
+    private final boolean withWeights;
+    private final int recordSize;
+    private final long recordCount;
+    private final long windowSize;
+
+    private MappedByteBuffer window = null;
+    private long windowStart = 0L;
+    private long recordsRead = 0L;
+    private int weight = 1;
+
+    /**
+     * @param traceFile the trace to replay
+     * @throws IOException if the file can not be opened, or is not an arrival trace
+     */
+    public ArrivalTraceReader(final Path traceFile) throws IOException {
+        channel = FileChannel.open(traceFile, StandardOpenOption.READ);
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(ArrivalTraceWriter.HEADER_SIZE_IN_BYTES);
+            while (header.hasRemaining() && (channel.read(header) >= 0)) {
+                // Keep reading until the header is complete.
+            }
+            header.flip();
+            if ((header.remaining() < ArrivalTraceWriter.HEADER_SIZE_IN_BYTES)
+                    || (ArrivalTraceWriter.MAGIC != header.getInt())) {
+                throw new IOException("Not an arrival trace: " + traceFile);
+            }
+            final int version = header.getInt();
+            if (ArrivalTraceWriter.VERSION != version) {
+                throw new IOException(String.format("Unsupported arrival trace version %d: %s", version, traceFile));
+            }
+
+            withWeights = 0 != (header.getInt() & ArrivalTraceWriter.FLAG_WEIGHTS);
+            recordSize = header.getInt();
+            if (recordSize != ArrivalTraceWriter.RECORD_SIZE_IN_BYTES
+                    + (withWeights ? ArrivalTraceWriter.WEIGHT_SIZE_IN_BYTES : 0)) {
+                throw new IOException(String.format("Invalid record size %d: %s", recordSize, traceFile));
+            }
+
+            final long dataSize = channel.size() - ArrivalTraceWriter.HEADER_SIZE_IN_BYTES;
+            if (0L != (dataSize % recordSize)) {
+                throw new IOException("Arrival trace ends with a partial record: " + traceFile);
+            }
+            recordCount = dataSize / recordSize;
+            windowSize = (WINDOW_SIZE_IN_BYTES / recordSize) * recordSize;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean hasWeights() {
+        return withWeights;
+    }
+
+    /**
+     * @return the number of riders in the trace
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the weight of the last rider returned by {@link #next()} (1 if the trace does not have weights)
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return recordsRead < recordCount;
+    }
+
+    @Override
+    public PickupRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        if ((null == window) || !window.hasRemaining()) {
+            mapNextWindow();
+        }
+
+        final double timestamp = window.getDouble();
+        final int startingFloor = window.getInt();
+        final int targetFloor = window.getInt();
+        weight = withWeights ? window.getInt() : 1;
+        recordsRead++;
+
+        return new PickupRequest(startingFloor, targetFloor - startingFloor, timestamp);
+    }
+
+    private void mapNextWindow() {
+        if (null != window) {
+            windowStart += window.capacity();
+        }
+
+        final long size = Math.min(windowSize, (recordCount - recordsRead) * recordSize);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, ArrivalTraceWriter.HEADER_SIZE_IN_BYTES + windowStart,
+                    size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
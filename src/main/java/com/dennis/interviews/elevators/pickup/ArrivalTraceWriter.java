@@ -0,0 +1,139 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.dennis.interviews.elevators.PickupRequest;
+
+/**
+ * Writes arrivals to a binary trace file that {@link ArrivalTraceReader} can replay into a simulation.  The file
+ * starts with a header of four big-endian ints (magic number, version, flags and record size), followed by one
+ * fixed-width record per arrival:
+ * <ul>
+ *   <li>arrival timestamp (double)</li>
+ *   <li>starting floor (int)</li>
+ *   <li>destination floor (int)</li>
+ *   <li>weight (int, only if the trace was created with weights)</li>
+ * </ul>
+ * Arrivals must be written in timestamp order, which is the order the simulation needs them in.
+ *
+ * @author dennislin
+ */
+public final class ArrivalTraceWriter implements Closeable {
+    static final int MAGIC = 0x454C5654;
+    static final int VERSION = 1;
+    static final int FLAG_WEIGHTS = 1;
+    static final int HEADER_SIZE_IN_BYTES = 16;
+    static final int RECORD_SIZE_IN_BYTES = 16;
+    static final int WEIGHT_SIZE_IN_BYTES = 4;
+
+    private static final int BUFFER_SIZE_IN_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE_IN_BYTES);
+    private final boolean withWeights;
+    private final int recordSize;
+    private double lastTimestamp = Double.NEGATIVE_INFINITY;
+    private long recordCount = 0L;
+
+    /**
+     * @param traceFile the file to write, replaced if it exists
+     * @param withWeights whether every arrival has a weight
+     * @throws IOException if the file can not be opened
+     */
+    public ArrivalTraceWriter(final Path traceFile, final boolean withWeights) throws IOException {
+        this.withWeights = withWeights;
+        this.recordSize = RECORD_SIZE_IN_BYTES + (withWeights ? WEIGHT_SIZE_IN_BYTES : 0);
+        this.channel = FileChannel.open(traceFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(withWeights ? FLAG_WEIGHTS : 0);
+        buffer.putInt(recordSize);
+    }
+
+    public boolean hasWeights() {
+        return withWeights;
+    }
+
+    /**
+     * @return the number of arrivals written so far
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes a rider (with a weight of 1, if the trace has weights).
+     *
+     * @param pickupRequest the rider to write
+     * @throws IOException if the trace can not be written
+     */
+    public void write(final PickupRequest pickupRequest) throws IOException {
+        write(pickupRequest.getTimestamp(), pickupRequest.getStartingFloor(), pickupRequest.getTargetFloor(), 1);
+    }
+
+    /**
+     * Writes an arrival without a weight (or with a weight of 1, if the trace has weights).
+     *
+     * @param timestamp when the rider arrives
+     * @param startingFloor the floor the rider arrives on
+     * @param targetFloor the floor the rider is going to
+     * @throws IOException if the trace can not be written
+     */
+    public void write(final double timestamp, final int startingFloor, final int targetFloor) throws IOException {
+        write(timestamp, startingFloor, targetFloor, 1);
+    }
+
+    /**
+     * @param timestamp when the rider arrives
+     * @param startingFloor the floor the rider arrives on
+     * @param targetFloor the floor the rider is going to
+     * @param weight the weight of the rider (ignored if the trace does not have weights)
+     * @throws IOException if the trace can not be written
+     */
+    public void write(final double timestamp, final int startingFloor, final int targetFloor, final int weight)
+            throws IOException {
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException(String.format(
+                    "Arrivals must be written in timestamp order, but %f came after %f", timestamp, lastTimestamp));
+        } else if (startingFloor == targetFloor) {
+            throw new IllegalArgumentException("Rider is not going anywhere: floor " + startingFloor);
+        }
+
+        if (buffer.remaining() < recordSize) {
+            flush();
+        }
+        buffer.putDouble(timestamp);
+        buffer.putInt(startingFloor);
+        buffer.putInt(targetFloor);
+        if (withWeights) {
+            buffer.putInt(weight);
+        }
+
+        lastTimestamp = timestamp;
+        recordCount++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
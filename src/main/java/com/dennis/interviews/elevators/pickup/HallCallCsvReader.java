@@ -0,0 +1,346 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.PickupRequest;
+
+/**
+ * Streams the hall calls of a CSV log into a simulation, one rider at a time.  Every line holds the arrival
+ * timestamp (in seconds), the starting floor and the destination floor, in that order; any further columns are
+ * ignored, as are blank lines and a header line.  The log is read through a single reused buffer and the fields are
+ * parsed straight from its bytes, so no strings are created per line and the heap used does not depend on the size
+ * of the log.
+ *
+ * <p>Every floor is checked against the floors served by the elevators, so a log from another building fails fast
+ * instead of stranding riders on floors no elevator can reach.
+ *
+ * @author dennislin
+ */
+public final class HallCallCsvReader implements Iterator<PickupRequest>, Closeable {
+    private static final int BUFFER_SIZE_IN_BYTES = 1 << 16;
+    /**
+     * Powers of ten that are exact as doubles, for parsing decimals without rounding twice.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE_IN_BYTES);
+    private final int minFloor;
+    private final int maxFloor;
+    private boolean endOfFile = false;
+    private long lineNumber = 0L;
+
+    //  The next line, parsed ahead by hasNext().
+    private boolean hasParsedLine = false;
+    private double nextTimestamp = 0.0;
+    private int nextStartingFloor = 0;
+    private int nextTargetFloor = 0;
+
+    //  The position of the field being parsed within the buffer.
+    private int position = 0;
+    private int lineEnd = 0;
+
+    /**
+     * @param csvFile the hall-call log
+     * @param elevators the elevators that will serve the riders (the floors must be served by at least one of them)
+     * @throws IOException if the file can not be opened
+     */
+    public HallCallCsvReader(final Path csvFile, final List<AbstractElevator> elevators) throws IOException {
+        this(csvFile, getMinFloor(elevators), getMaxFloor(elevators));
+    }
+
+    /**
+     * @param csvFile the hall-call log
+     * @param minFloor the lowest valid floor
+     * @param maxFloor the highest valid floor
+     * @throws IOException if the file can not be opened
+     */
+    public HallCallCsvReader(final Path csvFile, final int minFloor, final int maxFloor) throws IOException {
+        if (minFloor > maxFloor) {
+            throw new IllegalArgumentException(String.format("Invalid floors: min=%d, max=%d", minFloor, maxFloor));
+        }
+
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.channel = FileChannel.open(csvFile, StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    private static int getMinFloor(final List<AbstractElevator> elevators) {
+        if (elevators.isEmpty()) {
+            throw new IllegalArgumentException("There are no elevators to serve the hall calls.");
+        }
+
+        double minFloor = Double.POSITIVE_INFINITY;
+        for (AbstractElevator elevator : elevators) {
+            minFloor = Math.min(minFloor, elevator.getMinFloor());
+        }
+
+        return (int) Math.ceil(minFloor);
+    }
+
+    private static int getMaxFloor(final List<AbstractElevator> elevators) {
+        double maxFloor = Double.NEGATIVE_INFINITY;
+        for (AbstractElevator elevator : elevators) {
+            maxFloor = Math.max(maxFloor, elevator.getMaxFloor());
+        }
+
+        return (int) Math.floor(maxFloor);
+    }
+
+    /**
+     * @return the number of the line last read (1-based)
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!hasParsedLine) {
+            try {
+                hasParsedLine = parseNextLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return hasParsedLine;
+    }
+
+    @Override
+    public PickupRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        hasParsedLine = false;
+        return new PickupRequest(nextStartingFloor, nextTargetFloor - nextStartingFloor, nextTimestamp);
+    }
+
+    /**
+     * Parses lines until one holds a hall call.
+     *
+     * @return false if the end of the log was reached
+     * @throws IOException if the log can not be read
+     */
+    private boolean parseNextLine() throws IOException {
+        while (findNextLine()) {
+            lineNumber++;
+            skipSpaces();
+            if (position == lineEnd) {
+                continue;
+            }
+
+            //  The header is the only line allowed to start with something other than a number.
+            final byte first = buffer.get(position);
+            if ((1L == lineNumber) && !isDigit(first) && ('-' != first) && ('+' != first) && ('.' != first)) {
+                continue;
+            }
+
+            nextTimestamp = parseDouble();
+            nextStartingFloor = parseFloor();
+            nextTargetFloor = parseFloor();
+            if (nextStartingFloor == nextTargetFloor) {
+                throw parseError("rider is not going anywhere");
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Moves {@link #position} and {@link #lineEnd} to the next line, reading more of the file if the line is not
+     * complete in the buffer.
+     *
+     * @return false if there are no more lines
+     * @throws IOException if the log can not be read
+     */
+    private boolean findNextLine() throws IOException {
+        buffer.position(Math.min(lineEnd + 1, buffer.limit()));
+        while (true) {
+            for (int index = buffer.position(); index < buffer.limit(); index++) {
+                if ('\n' == buffer.get(index)) {
+                    position = buffer.position();
+                    lineEnd = index;
+                    return true;
+                }
+            }
+
+            if (endOfFile) {
+                if (!buffer.hasRemaining()) {
+                    return false;
+                }
+
+                //  The last line does not end with a newline.
+                position = buffer.position();
+                lineEnd = buffer.limit();
+                return true;
+            }
+
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                throw new IOException(String.format("Line %d is longer than %d bytes", lineNumber + 1,
+                        BUFFER_SIZE_IN_BYTES));
+            }
+            endOfFile = channel.read(buffer) < 0;
+            buffer.flip();
+            lineEnd = -1;
+        }
+    }
+
+    private void skipSpaces() {
+        while ((position < lineEnd) && isSpace(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isSpace(final byte character) {
+        return (' ' == character) || ('\t' == character) || ('\r' == character);
+    }
+
+    private static boolean isDigit(final byte character) {
+        return (character >= '0') && (character <= '9');
+    }
+
+    /**
+     * Moves past the end of the current field and its separator.
+     */
+    private void endField(final String fieldName) {
+        skipSpaces();
+        if (position < lineEnd) {
+            if (',' != buffer.get(position)) {
+                throw parseError("unexpected characters after the " + fieldName);
+            }
+            position++;
+        }
+        skipSpaces();
+    }
+
+    private int parseFloor() {
+        if (position == lineEnd) {
+            throw parseError("missing floor");
+        }
+
+        final boolean negative = '-' == buffer.get(position);
+        if (negative || ('+' == buffer.get(position))) {
+            position++;
+        }
+
+        final int start = position;
+        long value = 0L;
+        while ((position < lineEnd) && isDigit(buffer.get(position))) {
+            value = value * 10L + (buffer.get(position++) - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw parseError("floor is out of range");
+            }
+        }
+        if (start == position) {
+            throw parseError("floor is not a number");
+        }
+
+        final int floor = (int) (negative ? -value : value);
+        if ((floor < minFloor) || (floor > maxFloor)) {
+            throw parseError(String.format("floor %d is not served by the elevators (floors %d to %d)", floor,
+                    minFloor, maxFloor));
+        }
+        endField("floor");
+
+        return floor;
+    }
+
+    /**
+     * Parses a decimal number such as "12.5" or "1.25e1".  Numbers with up to 15 significant digits are computed
+     * exactly from the digits; anything longer falls back to {@link Double#parseDouble(String)}.
+     */
+    private double parseDouble() {
+        final int start = position;
+        final boolean negative = '-' == buffer.get(position);
+        if (negative || ('+' == buffer.get(position))) {
+            position++;
+        }
+
+        long mantissa = 0L;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        boolean tooManyDigits = false;
+        for (; position < lineEnd; position++) {
+            final byte character = buffer.get(position);
+            if (isDigit(character)) {
+                if (mantissa < MAX_EXACT_MANTISSA / 10L) {
+                    mantissa = mantissa * 10L + (character - '0');
+                    scale += seenPoint ? 1 : 0;
+                } else {
+                    tooManyDigits = true;
+                }
+                digits++;
+            } else if (('.' == character) && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (0 == digits) {
+            throw parseError("timestamp is not a number");
+        }
+
+        int exponent = 0;
+        if ((position < lineEnd) && (('e' == buffer.get(position)) || ('E' == buffer.get(position)))) {
+            position++;
+            final boolean negativeExponent = (position < lineEnd) && ('-' == buffer.get(position));
+            if ((position < lineEnd) && (negativeExponent || ('+' == buffer.get(position)))) {
+                position++;
+            }
+            final int exponentStart = position;
+            while ((position < lineEnd) && isDigit(buffer.get(position)) && (Math.abs(exponent) < 1000)) {
+                exponent = exponent * 10 + (buffer.get(position++) - '0');
+            }
+            if (exponentStart == position) {
+                throw parseError("timestamp has an invalid exponent");
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+
+        final int power = exponent - scale;
+        double value;
+        if (tooManyDigits || (power < -22) || (power > 22)) {
+            final byte[] characters = new byte[position - start];
+            for (int index = 0; index < characters.length; index++) {
+                characters[index] = buffer.get(start + index);
+            }
+            value = Math.abs(Double.parseDouble(new String(characters, StandardCharsets.US_ASCII)));
+        } else {
+            value = (power < 0) ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+        }
+        endField("timestamp");
+
+        return negative ? -value : value;
+    }
+
+    private IllegalArgumentException parseError(final String message) {
+        return new IllegalArgumentException(String.format("Invalid hall call on line %d: %s", lineNumber, message));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,327 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import com.dennis.interviews.elevators.PickupRequest;
+
+/**
+ * Generates the traffic of an office building over a day, i.e. a non-homogeneous Poisson process whose intensity is
+ * a constant background of inter-floor traffic plus any number of peaks shaped like a normal distribution (the
+ * morning up-peak, the lunch two-way peak and the evening down-peak).  Every peak has its own origin and destination
+ * floor weights, which are sampled in constant time from {@link AliasTable alias tables}.
+ *
+ * <p>Arrivals are generated by thinning:  candidates arrive at the highest rate the intensity can reach, and each
+ * candidate is kept with probability intensity / highest rate.  The same random number also picks which part of the
+ * traffic (background or peak) the rider belongs to, so the floors follow the mix of traffic at that time of day.
+ *
+ * @author dennislin
+ */
+public class PeakTrafficGenerator extends AbstractPickupRequestGenerator {
+    /**
+     * A part of the traffic, with its own intensity over time and its own floor weights.
+     */
+    private static final class TrafficComponent {
+        private final double peakArrivalsPerSecond;
+        private final NormalDistribution shape;
+        private final double shapeScale;
+        private final AliasTable origins;
+        private final AliasTable destinations;
+
+        private TrafficComponent(final double peakArrivalsPerSecond, final NormalDistribution shape,
+                final AliasTable origins, final AliasTable destinations) {
+            this.peakArrivalsPerSecond = peakArrivalsPerSecond;
+            this.shape = shape;
+            this.shapeScale = (null == shape) ? 1.0 : 1.0 / shape.density(shape.getMean());
+            this.origins = origins;
+            this.destinations = destinations;
+        }
+
+        private double getArrivalsPerSecond(final double timestamp) {
+            return (null == shape) ? peakArrivalsPerSecond
+                    : peakArrivalsPerSecond * shape.density(timestamp) * shapeScale;
+        }
+    }
+
+    private final int minFloor;
+    private final int maxFloor;
+    private final int lobbyFloor;
+    private final double experimentDurationInSeconds;
+    private final List<TrafficComponent> listComponents = new ArrayList<>();
+
+    /**
+     * @param minFloor the lowest floor
+     * @param maxFloor the highest floor
+     * @param lobbyFloor the floor where people enter and leave the building
+     * @param experimentDurationInSeconds no requests will arrive at or after this timestamp
+     * @param interFloorArrivalsPerSecond the rate of the background traffic between random floors (may be 0)
+     * @param seed the seed for the random number generator, which determines all the generated requests
+     */
+    public PeakTrafficGenerator(final int minFloor, final int maxFloor, final int lobbyFloor,
+            final double experimentDurationInSeconds, final double interFloorArrivalsPerSecond, final long seed) {
+        super(seed);
+        if (minFloor >= maxFloor) {
+            throw new IllegalArgumentException(String.format("Need at least two floors: min=%d, max=%d",
+                    minFloor, maxFloor));
+        } else if ((lobbyFloor < minFloor) || (lobbyFloor > maxFloor)) {
+            throw new IllegalArgumentException(String.format("Lobby floor %d is not between floors %d and %d",
+                    lobbyFloor, minFloor, maxFloor));
+        }
+
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.lobbyFloor = lobbyFloor;
+        this.experimentDurationInSeconds = experimentDurationInSeconds;
+        if (interFloorArrivalsPerSecond > 0.0) {
+            final double[] everyFloor = createWeights(1.0);
+            addComponent(interFloorArrivalsPerSecond, null, everyFloor, everyFloor);
+        }
+    }
+
+    private PeakTrafficGenerator(final PeakTrafficGenerator original) {
+        super(original.getRandom().split());
+        this.minFloor = original.minFloor;
+        this.maxFloor = original.maxFloor;
+        this.lobbyFloor = original.lobbyFloor;
+        this.experimentDurationInSeconds = original.experimentDurationInSeconds;
+        this.listComponents.addAll(original.listComponents);
+    }
+
+    @Override
+    public PeakTrafficGenerator split() {
+        return new PeakTrafficGenerator(this);
+    }
+
+    /**
+     * Adds a peak of people arriving in the lobby and going up to the other floors.
+     *
+     * @param peakTimestamp when the traffic is the heaviest
+     * @param widthInSeconds the standard deviation of the peak
+     * @param peakArrivalsPerSecond the rate of arrivals at the height of the peak
+     */
+    public void addUpPeak(final double peakTimestamp, final double widthInSeconds,
+            final double peakArrivalsPerSecond) {
+        addPeak(peakTimestamp, widthInSeconds, peakArrivalsPerSecond, createLobbyWeights(), createUpperWeights());
+    }
+
+    /**
+     * Adds a peak of people leaving the building from the other floors through the lobby.
+     *
+     * @param peakTimestamp when the traffic is the heaviest
+     * @param widthInSeconds the standard deviation of the peak
+     * @param peakArrivalsPerSecond the rate of arrivals at the height of the peak
+     */
+    public void addDownPeak(final double peakTimestamp, final double widthInSeconds,
+            final double peakArrivalsPerSecond) {
+        addPeak(peakTimestamp, widthInSeconds, peakArrivalsPerSecond, createUpperWeights(), createLobbyWeights());
+    }
+
+    /**
+     * Adds a peak of people going both out of the building and back in (e.g. at lunch time), split evenly.
+     *
+     * @param peakTimestamp when the traffic is the heaviest
+     * @param widthInSeconds the standard deviation of the peak
+     * @param peakArrivalsPerSecond the rate of arrivals (in both directions) at the height of the peak
+     */
+    public void addTwoWayPeak(final double peakTimestamp, final double widthInSeconds,
+            final double peakArrivalsPerSecond) {
+        addUpPeak(peakTimestamp, widthInSeconds, peakArrivalsPerSecond / 2.0);
+        addDownPeak(peakTimestamp, widthInSeconds, peakArrivalsPerSecond / 2.0);
+    }
+
+    /**
+     * Adds a peak of traffic between arbitrary floors.  A rider whose destination is drawn to be their origin draws a
+     * new destination.
+     *
+     * @param peakTimestamp when the traffic is the heaviest
+     * @param widthInSeconds the standard deviation of the peak
+     * @param peakArrivalsPerSecond the rate of arrivals at the height of the peak
+     * @param originWeights the relative weight of every floor as an origin, starting with the lowest floor
+     * @param destinationWeights the relative weight of every floor as a destination, starting with the lowest floor
+     */
+    public void addPeak(final double peakTimestamp, final double widthInSeconds, final double peakArrivalsPerSecond,
+            final double[] originWeights, final double[] destinationWeights) {
+        if (!(widthInSeconds > 0.0)) {
+            throw new IllegalArgumentException("Width of the peak must be positive: " + widthInSeconds);
+        }
+
+        addComponent(peakArrivalsPerSecond, new NormalDistribution(peakTimestamp, widthInSeconds), originWeights,
+                destinationWeights);
+    }
+
+    private void addComponent(final double peakArrivalsPerSecond, final NormalDistribution shape,
+            final double[] originWeights, final double[] destinationWeights) {
+        final int numberOfFloors = maxFloor - minFloor + 1;
+        if (!(peakArrivalsPerSecond > 0.0) || Double.isInfinite(peakArrivalsPerSecond)) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + peakArrivalsPerSecond);
+        } else if ((numberOfFloors != originWeights.length) || (numberOfFloors != destinationWeights.length)) {
+            throw new IllegalArgumentException(String.format("Expected a weight for each of the %d floors, but got "
+                    + "%d origins and %d destinations", numberOfFloors, originWeights.length,
+                    destinationWeights.length));
+        }
+
+        //  Every possible origin needs another possible destination, or drawing a destination for it never ends.
+        final int onlyDestination = getOnlyPossibleFloor(destinationWeights);
+        if ((-1 != onlyDestination) && (originWeights[onlyDestination] > 0.0)) {
+            throw new IllegalArgumentException(String.format("Riders from floor %d have no other floor to go to",
+                    minFloor + onlyDestination));
+        }
+
+        listComponents.add(new TrafficComponent(peakArrivalsPerSecond, shape, new AliasTable(originWeights),
+                new AliasTable(destinationWeights)));
+    }
+
+    /**
+     * @return the index of the only floor with a positive weight, or -1 if there are several
+     */
+    private static int getOnlyPossibleFloor(final double[] weights) {
+        int onlyFloor = -1;
+        for (int index = 0; index < weights.length; index++) {
+            if (weights[index] > 0.0) {
+                if (-1 != onlyFloor) {
+                    return -1;
+                }
+                onlyFloor = index;
+            }
+        }
+
+        return onlyFloor;
+    }
+
+    private double[] createWeights(final double weight) {
+        final double[] weights = new double[maxFloor - minFloor + 1];
+        Arrays.fill(weights, weight);
+        return weights;
+    }
+
+    private double[] createLobbyWeights() {
+        final double[] weights = createWeights(0.0);
+        weights[lobbyFloor - minFloor] = 1.0;
+        return weights;
+    }
+
+    private double[] createUpperWeights() {
+        final double[] weights = createWeights(1.0);
+        weights[lobbyFloor - minFloor] = 0.0;
+        return weights;
+    }
+
+    /**
+     * @param timestamp the time of day
+     * @return the rate of arrivals at the given time
+     */
+    public double getArrivalsPerSecond(final double timestamp) {
+        double arrivalsPerSecond = 0.0;
+        for (TrafficComponent component : listComponents) {
+            arrivalsPerSecond += component.getArrivalsPerSecond(timestamp);
+        }
+
+        return arrivalsPerSecond;
+    }
+
+    /**
+     * @return the highest rate of arrivals the traffic can reach (the rate candidates are drawn at when thinning)
+     */
+    private static double getMaxArrivalsPerSecond(final TrafficComponent[] components) {
+        double maxArrivalsPerSecond = 0.0;
+        for (TrafficComponent component : components) {
+            maxArrivalsPerSecond += component.peakArrivalsPerSecond;
+        }
+
+        if (0.0 == maxArrivalsPerSecond) {
+            throw new IllegalStateException("There is no traffic -- add a peak or some inter-floor traffic.");
+        }
+
+        return maxArrivalsPerSecond;
+    }
+
+    /**
+     * Lazily generates a day of traffic, in timestamp order, so it can be streamed straight into a simulation.
+     *
+     * @return the pickup requests, in timestamp order
+     */
+    public final Iterator<PickupRequest> streamPickupRequests() {
+        final TrafficComponent[] components = listComponents.toArray(new TrafficComponent[listComponents.size()]);
+        final double maxArrivalsPerSecond = getMaxArrivalsPerSecond(components);
+
+        return new Iterator<PickupRequest>() {
+            private double candidateTimestamp = 0.0;
+            private PickupRequest nextRequest = generateNextRequest();
+
+            @Override
+            public boolean hasNext() {
+                return null != nextRequest;
+            }
+
+            @Override
+            public PickupRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final PickupRequest pickupRequest = nextRequest;
+                nextRequest = generateNextRequest();
+                return pickupRequest;
+            }
+
+            private PickupRequest generateNextRequest() {
+                while (true) {
+                    candidateTimestamp += -Math.log(1.0 - generateRandomProbability()) / maxArrivalsPerSecond;
+                    if (candidateTimestamp >= experimentDurationInSeconds) {
+                        return null;
+                    }
+
+                    //  Keep the candidate if it lands under the intensity of one of the components.
+                    double threshold = generateRandomProbability() * maxArrivalsPerSecond;
+                    for (TrafficComponent component : components) {
+                        threshold -= component.getArrivalsPerSecond(candidateTimestamp);
+                        if (threshold < 0.0) {
+                            return createPickupRequest(component, candidateTimestamp);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    private PickupRequest createPickupRequest(final TrafficComponent component, final double timestamp) {
+        final SplittableRandom random = getRandom();
+        final int startingFloor = minFloor + component.origins.sample(random);
+        int targetFloor = minFloor + component.destinations.sample(random);
+        while (targetFloor == startingFloor) {
+            targetFloor = minFloor + component.destinations.sample(random);
+        }
+
+        return new PickupRequest(startingFloor, targetFloor - startingFloor, timestamp);
+    }
+
+    /**
+     * Used by {@link #generatePickupRequests(int)}, which draws both floors of a rider independently of the time of
+     * day -- use {@link #streamPickupRequests()} for the full traffic profile.
+     */
+    @Override
+    protected int generateRandomFloor() {
+        return minFloor + getRandom().nextInt(maxFloor - minFloor + 1);
+    }
+
+    /**
+     * Draws a time of day from the intensity of the traffic (by rejection).
+     */
+    @Override
+    protected double generateRandomTimestamp() {
+        final TrafficComponent[] components = listComponents.toArray(new TrafficComponent[listComponents.size()]);
+        final double maxArrivalsPerSecond = getMaxArrivalsPerSecond(components);
+        while (true) {
+            final double timestamp = generateRandomProbability() * experimentDurationInSeconds;
+            if (generateRandomProbability() * maxArrivalsPerSecond < getArrivalsPerSecond(timestamp)) {
+                return timestamp;
+            }
+        }
+    }
+}
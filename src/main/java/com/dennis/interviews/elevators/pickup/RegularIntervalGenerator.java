@@ -1,26 +1,44 @@
 package com.dennis.interviews.elevators.pickup;
 
-import java.util.Random;
-
 public class RegularIntervalGenerator extends AbstractPickupRequestGenerator {
-    private static final Random RANDOM = new Random();
     private final int minFloor;
     private final int maxFloor;
     private final double experimentDurationInSeconds;
 
     public RegularIntervalGenerator(final int minFloor, final int maxFloor, final double experimentDurationInSeconds) {
+        super();
+        this.minFloor = minFloor;
+        this.maxFloor = maxFloor;
+        this.experimentDurationInSeconds = experimentDurationInSeconds;
+    }
+
+    public RegularIntervalGenerator(final int minFloor, final int maxFloor, final double experimentDurationInSeconds,
+            final long seed) {
+        super(seed);
         this.minFloor = minFloor;
         this.maxFloor = maxFloor;
         this.experimentDurationInSeconds = experimentDurationInSeconds;
     }
 
+    private RegularIntervalGenerator(final RegularIntervalGenerator original) {
+        super(original.getRandom().split());
+        this.minFloor = original.minFloor;
+        this.maxFloor = original.maxFloor;
+        this.experimentDurationInSeconds = original.experimentDurationInSeconds;
+    }
+
+    @Override
+    public RegularIntervalGenerator split() {
+        return new RegularIntervalGenerator(this);
+    }
+
     @Override
     protected int generateRandomFloor() {
-        return RANDOM.nextInt(maxFloor - minFloor + 1);
+        return minFloor + getRandom().nextInt(maxFloor - minFloor + 1);
     }
 
     @Override
     protected double generateRandomTimestamp() {
-        return RANDOM.nextDouble() * experimentDurationInSeconds;
+        return getRandom().nextDouble() * experimentDurationInSeconds;
     }
 }
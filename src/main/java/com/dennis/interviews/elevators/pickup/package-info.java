@@ -3,6 +3,9 @@
  * request is meant to model an individual rider.  The original intent was to use
  * the Apache Commons Math library (see pom.xml) to generate * use arbitrary
  * statistical distributions for determining arrival time, starting floor, and target
- * floor for each pickup request.
+ * floor for each pickup request.  PeakTrafficGenerator does this for the time of
+ * day (up-peak, two-way and down-peak traffic), drawing floors from alias tables.
+ * Recorded traffic can also be replayed from a binary trace (see ArrivalTraceWriter
+ * and ArrivalTraceReader), or from a CSV log of hall calls (see HallCallCsvReader).
  */
 package com.dennis.interviews.elevators.pickup;
@@ -0,0 +1,74 @@
+package com.dennis.interviews.elevators.recorder;
+
+/**
+ * A mutable view of one recorded event, filled in when reading from an {@link EventRecorder} or a trace file.  The
+ * same instance is reused for every event, so copy out whatever needs to be kept.
+ *
+ * @author dennislin
+ */
+public final class EventRecord {
+    /**
+     * The size of a record in a trace file: timestamp, position and value (doubles), then elevator id, type, old
+     * value and new value (ints), all big-endian.
+     */
+    public static final int SIZE_IN_BYTES = 40;
+
+    private double timestamp;
+    private int elevatorId;
+    private EventType type;
+    private int oldValue;
+    private int newValue;
+    private double position;
+    private double value;
+
+    void set(final double timestamp, final int elevatorId, final EventType type, final int oldValue,
+            final int newValue, final double position, final double value) {
+        this.timestamp = timestamp;
+        this.elevatorId = elevatorId;
+        this.type = type;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.position = position;
+        this.value = value;
+    }
+
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the id of the elevator (its index in the simulation), or -1 for events that are not about an elevator
+     */
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public int getOldValue() {
+        return oldValue;
+    }
+
+    public int getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @return the position of the elevator at the time of the event
+     */
+    public double getPosition() {
+        return position;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EventRecord(timestamp=%f, elevatorId=%d, type=%s, oldValue=%d, newValue=%d, "
+                + "position=%f, value=%f)", timestamp, elevatorId, type, oldValue, newValue, position, value);
+    }
+}
@@ -0,0 +1,293 @@
+package com.dennis.interviews.elevators.recorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records simulation events as fixed-size records in a preallocated ring buffer, so tracing costs a few array stores
+ * per event and never allocates or formats strings.  There is one writer (the thread running the simulation) and at
+ * most one reader:
+ * <ul>
+ *   <li>Without a drain, the buffer is a flight recorder -- once full, new events overwrite the oldest ones, and
+ *       {@link #drain(EventVisitor)} reads whatever is left (from the simulation thread, or after the simulation
+ *       finished).</li>
+ *   <li>With {@link #startDrain(Path)}, a background thread appends the events to a trace file.  If the writer gets
+ *       a whole buffer ahead of the drain, new events are dropped (and counted) rather than blocking the
+ *       simulation.  If the trace file can not be written, the recorder goes back to being a flight recorder, and
+ *       the failure is thrown by {@link #close()}.</li>
+ * </ul>
+ *
+ * @author dennislin
+ */
+public final class EventRecorder implements Closeable {
+    private static final int LONGS_PER_RECORD = 5;
+    private static final int RECORDS_PER_WRITE = 1024;
+    private static final long IDLE_DRAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final long[] records;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLong readSequence = new AtomicLong();
+    private volatile long droppedCount = 0L;
+
+    private volatile boolean draining = false;
+    private Thread drainThread = null;
+    private FileChannel traceChannel = null;
+    private ByteBuffer traceBuffer = null;
+    private volatile IOException drainFailure = null;
+
+    /**
+     * @param minCapacity the minimum number of events the buffer holds (rounded up to a power of two)
+     */
+    public EventRecorder(final int minCapacity) {
+        if ((minCapacity < 1) || (minCapacity > (1 << 26))) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^26 events: " + minCapacity);
+        }
+
+        capacity = Math.max(2, Integer.highestOneBit(minCapacity - 1) << 1);
+        mask = capacity - 1;
+        records = new long[capacity * LONGS_PER_RECORD];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of events recorded and not yet read
+     */
+    public int size() {
+        return (int) (writeSequence.get() - readSequence.get());
+    }
+
+    /**
+     * @return the number of events that were dropped because the drain could not keep up
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return whether a background thread is appending the events to a trace file
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Records an event (only to be called from the thread running the simulation).
+     *
+     * @param timestamp when the event happened
+     * @param elevatorId the id of the elevator, or -1
+     * @param type the kind of event
+     * @param oldValue depends on the type of the event
+     * @param newValue depends on the type of the event
+     * @param position the position of the elevator
+     * @param value depends on the type of the event
+     */
+    public void record(final double timestamp, final int elevatorId, final EventType type, final int oldValue,
+            final int newValue, final double position, final double value) {
+        final long write = writeSequence.get();
+        final long read = readSequence.get();
+        if (write - read >= capacity) {
+            if (draining) {
+                droppedCount++;
+                return;
+            }
+            readSequence.lazySet(read + 1);
+        }
+
+        final int offset = (int) (write & mask) * LONGS_PER_RECORD;
+        records[offset] = Double.doubleToRawLongBits(timestamp);
+        records[offset + 1] = Double.doubleToRawLongBits(position);
+        records[offset + 2] = Double.doubleToRawLongBits(value);
+        records[offset + 3] = ((long) elevatorId << 32) | type.ordinal();
+        records[offset + 4] = ((long) oldValue << 32) | (newValue & 0xFFFFFFFFL);
+        writeSequence.lazySet(write + 1);
+    }
+
+    /**
+     * Reads and removes every event recorded so far, oldest first.
+     *
+     * @param visitor receives the events
+     * @return the number of events read
+     */
+    public int drain(final EventVisitor visitor) {
+        if (draining) {
+            throw new IllegalStateException("Events are already being drained to a trace file");
+        }
+
+        return drainTo(visitor);
+    }
+
+    private int drainTo(final EventVisitor visitor) {
+        final EventRecord eventRecord = new EventRecord();
+        final long write = writeSequence.get();
+        long read = readSequence.get();
+        int count = 0;
+        for (; read < write; read++, count++) {
+            final int offset = (int) (read & mask) * LONGS_PER_RECORD;
+            eventRecord.set(Double.longBitsToDouble(records[offset]), (int) (records[offset + 3] >> 32),
+                    EventType.fromOrdinal((int) records[offset + 3]), (int) (records[offset + 4] >> 32),
+                    (int) records[offset + 4], Double.longBitsToDouble(records[offset + 1]),
+                    Double.longBitsToDouble(records[offset + 2]));
+            visitor.visit(eventRecord);
+            readSequence.lazySet(read + 1);
+        }
+
+        return count;
+    }
+
+    /**
+     * Starts a daemon thread that appends every recorded event to a trace file (see {@link #readTrace(Path,
+     * EventVisitor)}) until the recorder is closed.
+     *
+     * @param traceFile the file to write, replaced if it exists
+     * @throws IOException if the file can not be opened
+     */
+    public synchronized void startDrain(final Path traceFile) throws IOException {
+        if (null != drainThread) {
+            throw new IllegalStateException("Events are already being drained to a trace file");
+        }
+
+        traceChannel = FileChannel.open(traceFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        traceBuffer = ByteBuffer.allocateDirect(RECORDS_PER_WRITE * EventRecord.SIZE_IN_BYTES);
+        draining = true;
+        drainThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (draining) {
+                        if (0 == drainToTrace()) {
+                            LockSupport.parkNanos(IDLE_DRAIN_NANOS);
+                        }
+                    }
+                } catch (IOException e) {
+                    stopDrainAfterFailure(e);
+                } catch (UncheckedIOException e) {
+                    stopDrainAfterFailure(e.getCause());
+                }
+            }
+        }, "EventRecorder-drain");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Remembers why the drain failed (to be rethrown by {@link #close()}), and falls back to being a flight recorder,
+     * so the simulation keeps the latest events instead of dropping every new one.
+     *
+     * @param e the failure
+     */
+    private void stopDrainAfterFailure(final IOException e) {
+        drainFailure = e;
+        draining = false;
+    }
+
+    private int drainToTrace() throws IOException {
+        final int count = drainTo(new EventVisitor() {
+            @Override
+            public void visit(final EventRecord eventRecord) {
+                if (traceBuffer.remaining() < EventRecord.SIZE_IN_BYTES) {
+                    flushTrace();
+                }
+                traceBuffer.putDouble(eventRecord.getTimestamp());
+                traceBuffer.putDouble(eventRecord.getPosition());
+                traceBuffer.putDouble(eventRecord.getValue());
+                traceBuffer.putInt(eventRecord.getElevatorId());
+                traceBuffer.putInt(eventRecord.getType().ordinal());
+                traceBuffer.putInt(eventRecord.getOldValue());
+                traceBuffer.putInt(eventRecord.getNewValue());
+            }
+        });
+        flushTrace();
+
+        return count;
+    }
+
+    private void flushTrace() {
+        traceBuffer.flip();
+        try {
+            while (traceBuffer.hasRemaining()) {
+                traceChannel.write(traceBuffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        traceBuffer.clear();
+    }
+
+    /**
+     * Stops the drain (if any), after writing out every event still in the buffer, and closes the trace file.
+     *
+     * @throws IOException if the trace file could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (null == drainThread) {
+            return;
+        }
+
+        draining = false;
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the drain to finish", e);
+        }
+        drainThread = null;
+
+        try {
+            if (null != drainFailure) {
+                throw drainFailure;
+            }
+            drainToTrace();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            traceChannel.close();
+        }
+    }
+
+    /**
+     * Reads a trace file written by {@link #startDrain(Path)}.
+     *
+     * @param traceFile the file to read
+     * @param visitor receives the events, oldest first
+     * @return the number of events read
+     * @throws IOException if the file can not be read
+     */
+    public static long readTrace(final Path traceFile, final EventVisitor visitor) throws IOException {
+        final EventRecord eventRecord = new EventRecord();
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORDS_PER_WRITE * EventRecord.SIZE_IN_BYTES);
+        long count = 0L;
+        try (FileChannel channel = FileChannel.open(traceFile, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= EventRecord.SIZE_IN_BYTES) {
+                    final double timestamp = buffer.getDouble();
+                    final double position = buffer.getDouble();
+                    final double value = buffer.getDouble();
+                    final int elevatorId = buffer.getInt();
+                    final EventType type = EventType.fromOrdinal(buffer.getInt());
+                    eventRecord.set(timestamp, elevatorId, type, buffer.getInt(), buffer.getInt(), position, value);
+                    visitor.visit(eventRecord);
+                    count++;
+                }
+                buffer.compact();
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dennis.interviews.elevators.recorder;
+
+/**
+ * The kinds of events that are recorded.  What the old and new values and the value of a record mean depends on the
+ * type of the event.
+ *
+ * @author dennislin
+ */
+public enum EventType {
+    /**
+     * An elevator changed state; the old and new values are the ordinals of the states, and the value is how long
+     * the elevator was in the old state.
+     */
+    STATE_CHANGE,
+    /**
+     * An elevator advanced its clock; the old and new values are the ordinal of its state, and the value is the
+     * time increment.
+     */
+    TIME_INCREMENT,
+    /**
+     * The scheduler looked for work (the elevator id is -1); the old value is the number of idle elevators, the new
+     * value the number of floors with riders waiting, and the value is the time increment.
+     */
+    SCHEDULE;
+
+    private static final EventType[] VALUES = values();
+
+    static EventType fromOrdinal(final int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,13 @@
+package com.dennis.interviews.elevators.recorder;
+
+/**
+ * Receives the events read from an {@link EventRecorder} or a trace file, one at a time.
+ *
+ * @author dennislin
+ */
+public interface EventVisitor {
+    /**
+     * @param eventRecord the event (reused for the next event once this returns)
+     */
+    void visit(EventRecord eventRecord);
+}
@@ -0,0 +1,5 @@
+/**
+ * A low overhead event recorder for tracing simulations, i.e. fixed-size binary records written to a preallocated
+ * ring buffer and optionally drained to a file in the background.
+ */
+package com.dennis.interviews.elevators.recorder;
@@ -16,12 +16,15 @@ public class SimulationScenario01 {
     /**
      * The one and only main function.
      *
-     * @param args command-line arguments.
+     * @param args command-line arguments (optional seed, to replay a previous run).
      */
     public static final void main(final String[] args) {
+        final long seed = (args.length > 0) ? Long.parseLong(args[0]) : System.nanoTime();
+        System.out.println(String.format("Running scenario with seed=%d", seed));
+
         final double experimentDurationInSeconds = 20000.0;
         final AbstractPickupRequestGenerator pickupRequestGenerator =
-                new RegularIntervalGenerator(0, 10, experimentDurationInSeconds);
+                new RegularIntervalGenerator(0, 10, experimentDurationInSeconds, seed);
         List<PickupRequest> sortedRequests = pickupRequestGenerator.generatePickupRequests(20);
 
         List<AbstractElevator> listElevators = new ArrayList<>();
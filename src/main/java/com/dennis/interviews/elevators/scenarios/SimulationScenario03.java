@@ -0,0 +1,50 @@
+package com.dennis.interviews.elevators.scenarios;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+import com.dennis.interviews.elevators.experiment.ReplicationReport;
+import com.dennis.interviews.elevators.experiment.ReplicationRunner;
+import com.dennis.interviews.elevators.experiment.SimulationFactory;
+import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+
+/**
+ * Runs many replications of the configuration in {@link SimulationScenario01} (with Poisson arrivals instead of a
+ * fixed number of riders) to estimate the wait and ride times with confidence intervals.
+ */
+public class SimulationScenario03 {
+    /**
+     * The one and only main function.
+     *
+     * @param args command-line arguments (optional number of replications and master seed).
+     */
+    public static final void main(final String[] args) {
+        final int numberOfReplications = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        final long masterSeed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+        System.out.println(String.format("Running %d replications with masterSeed=%d", numberOfReplications,
+                masterSeed));
+
+        final double experimentDurationInSeconds = 20000.0;
+        final double arrivalsPerSecond = 20.0 / experimentDurationInSeconds;
+        ReplicationRunner runner = new ReplicationRunner(new SimulationFactory() {
+            @Override
+            public Simulation createSimulation(final long seed) {
+                List<AbstractElevator> listElevators = new ArrayList<>();
+                listElevators.add(new OpportunisticElevator("test1"));
+                listElevators.add(new OpportunisticElevator("test2"));
+
+                return new Simulation(listElevators,
+                        new RegularIntervalGenerator(0, 10, experimentDurationInSeconds, seed)
+                                .streamPickupRequests(arrivalsPerSecond, experimentDurationInSeconds),
+                        new GreedyMinimizeEmptyElevatorScheduler());
+            }
+        });
+
+        ReplicationReport report = runner.run(numberOfReplications, masterSeed);
+        System.out.println(report);
+    }
+}
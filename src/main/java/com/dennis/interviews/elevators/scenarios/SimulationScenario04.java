@@ -0,0 +1,47 @@
+package com.dennis.interviews.elevators.scenarios;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.experiment.ParameterSweep;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+import com.dennis.interviews.elevators.scheduler.GreedyScheduler;
+import com.dennis.interviews.elevators.scheduler.LatencyOptimizingScheduler;
+
+/**
+ * Capacity planning sweep that compares the {@link GreedyScheduler}, the {@link GreedyMinimizeEmptyElevatorScheduler}
+ * and the {@link LatencyOptimizingScheduler} with 1, 2, 4 and 8 elevators serving floors 0 to 10, at 30, 60 and 120
+ * arrivals per hour over four hours of traffic.  Every combination is replicated 20 times (with the same riders for
+ * the same load), and one CSV row per combination is written to standard out.
+ */
+public class SimulationScenario04 {
+    /**
+     * The one and only main function.
+     *
+     * @param args command-line arguments (optional master seed and maximum number of concurrent simulations).
+     */
+    public static final void main(final String[] args) throws Exception {
+        final long masterSeed = (args.length > 0) ? Long.parseLong(args[0]) : System.nanoTime();
+        final int maxConcurrency = (args.length > 1) ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        System.out.println(String.format("Running sweep with masterSeed=%d", masterSeed));
+
+        List<Class<? extends AbstractElevatorScheduler>> schedulerClasses = new ArrayList<>();
+        schedulerClasses.add(GreedyScheduler.class);
+        schedulerClasses.add(GreedyMinimizeEmptyElevatorScheduler.class);
+        schedulerClasses.add(LatencyOptimizingScheduler.class);
+
+        ParameterSweep sweep = new ParameterSweep(0, 10, 4.0 * 3600.0);
+        sweep.setElevatorCounts(1, 2, 4, 8);
+        sweep.setSchedulerClasses(schedulerClasses);
+        sweep.setArrivalsPerHour(30.0, 60.0, 120.0);
+        sweep.setNumberOfReplications(20);
+
+        Writer output = new OutputStreamWriter(System.out);
+        sweep.run(maxConcurrency, masterSeed, output);
+        output.flush();
+    }
+}
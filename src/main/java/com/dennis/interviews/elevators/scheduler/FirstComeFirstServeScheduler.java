@@ -4,10 +4,11 @@ import java.util.List;
 
 import com.dennis.interviews.elevators.AbstractElevator;
 import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.ActiveFloorIndex;
 
 public class FirstComeFirstServeScheduler extends AbstractElevatorScheduler {
     @Override
-    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, List<Integer> activeFloors) {
+    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, ActiveFloorIndex activeFloors) {
         throw new RuntimeException("Not implemented yet.");
     }
 }
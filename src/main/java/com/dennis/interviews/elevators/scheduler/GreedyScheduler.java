@@ -4,16 +4,19 @@ import java.util.List;
 
 import com.dennis.interviews.elevators.AbstractElevator;
 import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.ActiveFloorIndex;
 
 public class GreedyScheduler extends AbstractElevatorScheduler {
     @Override
-    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, List<Integer> activeFloors) {
+    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, ActiveFloorIndex activeFloors) {
         for (AbstractElevator idleElevator : listIdleElevators) {
             if (activeFloors.isEmpty()) {
                 break;
             }
 
-            idleElevator.setTargetFloor(activeFloors.remove(0).doubleValue());
+            final int firstFloor = activeFloors.first();
+            activeFloors.remove(firstFloor);
+            dispatch(idleElevator, firstFloor);
         }
     }
 }
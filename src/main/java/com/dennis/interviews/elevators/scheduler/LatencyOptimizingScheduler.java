@@ -1,14 +1,154 @@
 package com.dennis.interviews.elevators.scheduler;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.dennis.interviews.elevators.AbstractElevator;
 import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.ActiveFloorIndex;
 
+/**
+ * Matches idle elevators to active floors so that the total distance travelled to the waiting riders is as small as
+ * possible, i.e. solves the min-cost assignment problem with the Hungarian algorithm (the O(n^2 m) shortest
+ * augmenting path version), instead of letting the first elevators in the list grab the floors closest to them.
+ * When there are more elevators than active floors, the problem is transposed so that every floor gets an elevator.
+ *
+ * <p>The buffers used by the algorithm are kept between calls and only grow, so scheduling does not allocate once
+ * they are big enough for the building.
+ *
+ * @author dennislin
+ */
 public class LatencyOptimizingScheduler extends AbstractElevatorScheduler {
+    private double[] carPositions = new double[0];
+    private int[] floors = new int[0];
+
+    //  Buffers for the Hungarian algorithm (index 0 is a sentinel, so they hold one more entry than needed).
+    private double[] rowPotentials = new double[1];
+    private double[] columnPotentials = new double[1];
+    private double[] minSlack = new double[1];
+    private int[] rowOfColumn = new int[1];
+    private int[] previousColumn = new int[1];
+    private boolean[] visitedColumn = new boolean[1];
+
     @Override
-    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, List<Integer> activeFloors) {
-        //  Send each elevator to the closest active floor.
-        throw new RuntimeException("Not implemented yet.");
+    protected void scheduleIdleElevators(List<AbstractElevator> listIdleElevators, ActiveFloorIndex activeFloors) {
+        final int numberOfCars = listIdleElevators.size();
+        final int numberOfFloors = activeFloors.size();
+        if ((0 == numberOfCars) || (0 == numberOfFloors)) {
+            return;
+        }
+
+        if (carPositions.length < numberOfCars) {
+            carPositions = new double[Math.max(numberOfCars, carPositions.length * 2)];
+        }
+        if (floors.length < numberOfFloors) {
+            floors = new int[Math.max(numberOfFloors, floors.length * 2)];
+        }
+        for (int car = 0; car < numberOfCars; car++) {
+            carPositions[car] = listIdleElevators.get(car).getCurrentPosition();
+        }
+        int counter = 0;
+        for (int floor = activeFloors.first(); ActiveFloorIndex.NONE != floor; floor = activeFloors.next(floor + 1)) {
+            floors[counter++] = floor;
+        }
+
+        //  The algorithm needs at least as many columns as rows.
+        final boolean carsAreRows = numberOfCars <= numberOfFloors;
+        final int rows = carsAreRows ? numberOfCars : numberOfFloors;
+        final int columns = carsAreRows ? numberOfFloors : numberOfCars;
+        solveAssignment(rows, columns, carsAreRows);
+
+        for (int column = 1; column <= columns; column++) {
+            final int row = rowOfColumn[column];
+            if (0 == row) {
+                continue;
+            }
+
+            final int car = carsAreRows ? row - 1 : column - 1;
+            final int floor = carsAreRows ? column - 1 : row - 1;
+            dispatch(listIdleElevators.get(car), floors[floor]);
+        }
+    }
+
+    private double getCost(final int row, final int column, final boolean carsAreRows) {
+        return carsAreRows ? Math.abs(carPositions[row] - floors[column])
+                : Math.abs(carPositions[column] - floors[row]);
+    }
+
+    /**
+     * Assigns every row a distinct column with the minimum total cost.  Afterwards, {@link #rowOfColumn} holds the
+     * row (1-based) assigned to each column (1-based), or 0 for columns that were not assigned.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns (at least the number of rows)
+     * @param carsAreRows whether the rows are the elevators (or the floors)
+     */
+    private void solveAssignment(final int rows, final int columns, final boolean carsAreRows) {
+        ensureCapacity(rows, columns);
+        Arrays.fill(rowPotentials, 0, rows + 1, 0.0);
+        Arrays.fill(columnPotentials, 0, columns + 1, 0.0);
+        Arrays.fill(rowOfColumn, 0, columns + 1, 0);
+
+        for (int row = 1; row <= rows; row++) {
+            //  Grow a tree of tight edges from the new row (parked in the sentinel column 0) until it reaches a free
+            //  column, then flip the assignments along the path.
+            rowOfColumn[0] = row;
+            int currentColumn = 0;
+            Arrays.fill(minSlack, 0, columns + 1, Double.POSITIVE_INFINITY);
+            Arrays.fill(visitedColumn, 0, columns + 1, false);
+
+            do {
+                visitedColumn[currentColumn] = true;
+                final int currentRow = rowOfColumn[currentColumn];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                for (int column = 1; column <= columns; column++) {
+                    if (visitedColumn[column]) {
+                        continue;
+                    }
+
+                    final double slack = getCost(currentRow - 1, column - 1, carsAreRows)
+                            - rowPotentials[currentRow] - columnPotentials[column];
+                    if (slack < minSlack[column]) {
+                        minSlack[column] = slack;
+                        previousColumn[column] = currentColumn;
+                    }
+                    if (minSlack[column] < delta) {
+                        delta = minSlack[column];
+                        nextColumn = column;
+                    }
+                }
+
+                for (int column = 0; column <= columns; column++) {
+                    if (visitedColumn[column]) {
+                        rowPotentials[rowOfColumn[column]] += delta;
+                        columnPotentials[column] -= delta;
+                    } else {
+                        minSlack[column] -= delta;
+                    }
+                }
+                currentColumn = nextColumn;
+            } while (0 != rowOfColumn[currentColumn]);
+
+            do {
+                final int column = previousColumn[currentColumn];
+                rowOfColumn[currentColumn] = rowOfColumn[column];
+                currentColumn = column;
+            } while (0 != currentColumn);
+        }
+    }
+
+    private void ensureCapacity(final int rows, final int columns) {
+        if (rowPotentials.length < rows + 1) {
+            rowPotentials = new double[Math.max(rows + 1, rowPotentials.length * 2)];
+        }
+        if (columnPotentials.length < columns + 1) {
+            final int size = Math.max(columns + 1, columnPotentials.length * 2);
+            columnPotentials = new double[size];
+            minSlack = new double[size];
+            rowOfColumn = new int[size];
+            previousColumn = new int[size];
+            visitedColumn = new boolean[size];
+        }
     }
 }
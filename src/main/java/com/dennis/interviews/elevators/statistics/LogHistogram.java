@@ -0,0 +1,211 @@
+package com.dennis.interviews.elevators.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative values with logarithmically sized buckets (in the style of HdrHistogram).  Values are
+ * counted in units of a fixed resolution; small values get a bucket per unit, and every power of two above that is
+ * split into the same number of linear sub-buckets.  The relative error of a reported percentile is therefore
+ * bounded (below 1% with the default precision), while the memory used is fixed up front.
+ *
+ * @author dennislin
+ */
+public final class LogHistogram {
+    private static final int DEFAULT_SUB_BUCKET_BITS = 7;
+
+    private final double resolution;
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final long[] counts;
+    private long totalCount = 0L;
+    private double sum = 0.0;
+    private double max = 0.0;
+
+    /**
+     * @param resolution the smallest difference between values that the histogram needs to tell apart
+     */
+    public LogHistogram(final double resolution) {
+        this(resolution, DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @param resolution the smallest difference between values that the histogram needs to tell apart
+     * @param subBucketBits log2 of the number of sub-buckets per power of two (the relative error is about
+     *        2^-subBucketBits)
+     */
+    public LogHistogram(final double resolution, final int subBucketBits) {
+        if (resolution <= 0.0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        } else if ((subBucketBits < 1) || (subBucketBits > 16)) {
+            throw new IllegalArgumentException("Sub-bucket bits must be between 1 and 16: " + subBucketBits);
+        }
+
+        this.resolution = resolution;
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.counts = new long[(Long.SIZE - subBucketBits) * subBucketCount];
+    }
+
+    /**
+     * Records a value (negative values are recorded as 0).
+     *
+     * @param value the value to record
+     */
+    public void record(final double value) {
+        final double clampedValue = Math.max(0.0, value);
+        counts[getBucketIndex((long) (clampedValue / resolution))]++;
+        totalCount++;
+        sum += clampedValue;
+        max = Math.max(max, clampedValue);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the exact mean of all the recorded values, or NaN if nothing was recorded
+     */
+    public double getMean() {
+        return (0L == totalCount) ? Double.NaN : sum / totalCount;
+    }
+
+    /**
+     * @return the exact maximum of all the recorded values
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile the percentile to look up, between 0 and 100
+     * @return an estimate of the value at the given percentile (the middle of the bucket it falls in, but never more
+     *         than the maximum), or NaN if nothing was recorded
+     */
+    public double getValueAtPercentile(final double percentile) {
+        if (0L == totalCount) {
+            return Double.NaN;
+        }
+
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long countSoFar = 0L;
+        for (int index = 0; index < counts.length; index++) {
+            countSoFar += counts[index];
+            if (countSoFar >= rank) {
+                final double lowerBound = getBucketLowerBound(index);
+                final double upperBound = getBucketLowerBound(index + 1);
+                return Math.min(max, (lowerBound + upperBound) / 2.0 * resolution);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Adds all the values recorded by another histogram with the same resolution and precision.
+     *
+     * @param other the histogram to add
+     */
+    public void add(final LogHistogram other) {
+        if ((other.resolution != resolution) || (other.subBucketBits != subBucketBits)) {
+            throw new IllegalArgumentException("Histograms must have the same resolution and precision");
+        }
+
+        for (int index = 0; index < counts.length; index++) {
+            counts[index] += other.counts[index];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Writes the histogram in a compact binary form (only the buckets that have been used).
+     *
+     * @param output where to write the histogram
+     * @throws IOException if the histogram can not be written
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeDouble(resolution);
+        output.writeInt(subBucketBits);
+        output.writeLong(totalCount);
+        output.writeDouble(sum);
+        output.writeDouble(max);
+
+        int usedBuckets = 0;
+        for (long count : counts) {
+            if (0L != count) {
+                usedBuckets++;
+            }
+        }
+        output.writeInt(usedBuckets);
+        for (int index = 0; index < counts.length; index++) {
+            if (0L != counts[index]) {
+                output.writeInt(index);
+                output.writeLong(counts[index]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the values recorded by this histogram with the ones written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input where to read the histogram from
+     * @throws IOException if the histogram can not be read, or has a different resolution or precision
+     */
+    public void readFrom(final DataInput input) throws IOException {
+        final double otherResolution = input.readDouble();
+        final int otherSubBucketBits = input.readInt();
+        if ((otherResolution != resolution) || (otherSubBucketBits != subBucketBits)) {
+            throw new IOException(String.format("Histogram has resolution=%f and precision=%d, expected %f and %d",
+                    otherResolution, otherSubBucketBits, resolution, subBucketBits));
+        }
+
+        Arrays.fill(counts, 0L);
+        totalCount = input.readLong();
+        sum = input.readDouble();
+        max = input.readDouble();
+
+        final int usedBuckets = input.readInt();
+        for (int counter = 0; counter < usedBuckets; counter++) {
+            final int index = input.readInt();
+            if ((index < 0) || (index >= counts.length)) {
+                throw new IOException("Invalid histogram bucket: " + index);
+            }
+            counts[index] = input.readLong();
+        }
+    }
+
+    private int getBucketIndex(final long units) {
+        if (units < subBucketCount) {
+            return (int) units;
+        }
+
+        final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(units)) - subBucketBits;
+        return (shift * subBucketCount) + (int) (units >>> shift);
+    }
+
+    /**
+     * @param index the index of a bucket (or one past the last bucket)
+     * @return the smallest value, in units of the resolution, that is counted in the bucket
+     */
+    private double getBucketLowerBound(final int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+
+        final int shift = index / subBucketCount - 1;
+        final long subBucket = (index % subBucketCount) + subBucketCount;
+        return (double) subBucket * (1L << shift);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LogHistogram(count=%d, mean=%f, p50=%f, p95=%f, p99=%f, max=%f)",
+                totalCount, getMean(), getValueAtPercentile(50.0), getValueAtPercentile(95.0),
+                getValueAtPercentile(99.0), max);
+    }
+}
@@ -0,0 +1,90 @@
+package com.dennis.interviews.elevators.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.dennis.interviews.elevators.PickupRequest;
+
+/**
+ * Collects the wait and ride times of the riders as they are dropped off, so the statistics of a simulation do not
+ * depend on keeping every serviced rider around.
+ *
+ * @author dennislin
+ */
+public final class RiderStatistics {
+    /**
+     * Times are tracked to the hundredth of a second.
+     */
+    private static final double RESOLUTION = 0.01;
+
+    private final LogHistogram waitTimes = new LogHistogram(RESOLUTION);
+    private final LogHistogram rideTimes = new LogHistogram(RESOLUTION);
+
+    /**
+     * Records a rider who was just dropped off.
+     *
+     * @param pickupRequest the rider, with its pickup and drop off timestamps filled in
+     */
+    public void record(final PickupRequest pickupRequest) {
+        record(pickupRequest.getTimestampPickup() - pickupRequest.getTimestamp(),
+                pickupRequest.getTimestampDropoff() - pickupRequest.getTimestampPickup());
+    }
+
+    /**
+     * Records a rider who was just dropped off.
+     *
+     * @param waitTime the time from arriving at the elevator until the doors closed behind the rider
+     * @param rideTime the time from the doors closing behind the rider until they were dropped off
+     */
+    public void record(final double waitTime, final double rideTime) {
+        waitTimes.record(waitTime);
+        rideTimes.record(rideTime);
+    }
+
+    /**
+     * @return the number of riders dropped off
+     */
+    public long getNumberOfRiders() {
+        return waitTimes.getTotalCount();
+    }
+
+    /**
+     * @return the times from arriving at the elevator until the doors closed behind the rider
+     */
+    public LogHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return the times from the doors closing behind the rider until they were dropped off
+     */
+    public LogHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    /**
+     * @param output where to write the statistics
+     * @throws IOException if the statistics can not be written
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        waitTimes.writeTo(output);
+        rideTimes.writeTo(output);
+    }
+
+    /**
+     * Replaces the statistics with the ones written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input where to read the statistics from
+     * @throws IOException if the statistics can not be read
+     */
+    public void readFrom(final DataInput input) throws IOException {
+        waitTimes.readFrom(input);
+        rideTimes.readFrom(input);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RiderStatistics(waitTimes=%s, rideTimes=%s)", waitTimes, rideTimes);
+    }
+}
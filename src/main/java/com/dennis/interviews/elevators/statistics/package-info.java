@@ -0,0 +1,5 @@
+/**
+ * Online statistics that are collected while a simulation runs, using a fixed amount of memory no matter how many
+ * riders are serviced.
+ */
+package com.dennis.interviews.elevators.statistics;
@@ -0,0 +1,73 @@
+package com.dennis.interviews.elevators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+public class AbstractElevatorSchedulerTest extends AbstractTest {
+    /**
+     * Records what it is given on every tick, and optionally takes the first floor without sending an elevator.
+     */
+    private static final class RecordingScheduler extends AbstractElevatorScheduler {
+        private final boolean isRemovingFloors;
+        private final List<String> listActiveFloors = new ArrayList<>();
+        private final List<Long> listModificationCounts = new ArrayList<>();
+
+        private RecordingScheduler(final boolean isRemovingFloors) {
+            this.isRemovingFloors = isRemovingFloors;
+        }
+
+        @Override
+        protected void scheduleIdleElevators(final List<AbstractElevator> listIdleElevators,
+                final ActiveFloorIndex activeFloors) {
+            listActiveFloors.add(activeFloors.toString());
+            listModificationCounts.add(activeFloors.getModificationCount());
+            if (isRemovingFloors) {
+                activeFloors.remove(activeFloors.first());
+            }
+        }
+    }
+
+    @Test
+    public void testActiveFloorsAreOnlyCopiedWhenTheyChange() {
+        RecordingScheduler scheduler = new RecordingScheduler(false);
+        Simulation simulation = createSimulation(scheduler);
+        for (int counter = 0; counter < 4; counter++) {
+            simulation.incrementTime(1.0);
+        }
+
+        Assert.assertEquals(scheduler.listActiveFloors.get(0), "ActiveFloorIndex[3, 5]");
+        Assert.assertEquals(scheduler.listActiveFloors.get(1), "ActiveFloorIndex[3, 5]");
+        Assert.assertEquals(scheduler.listActiveFloors.get(2), "ActiveFloorIndex[3, 5, 8]");
+        Assert.assertEquals(scheduler.listActiveFloors.get(3), "ActiveFloorIndex[3, 5, 8]");
+        Assert.assertEquals(scheduler.listModificationCounts.get(1), scheduler.listModificationCounts.get(0));
+        Assert.assertNotEquals(scheduler.listModificationCounts.get(2), scheduler.listModificationCounts.get(1));
+        Assert.assertEquals(scheduler.listModificationCounts.get(3), scheduler.listModificationCounts.get(2));
+    }
+
+    @Test
+    public void testFloorsTakenByTheSchedulerAreRestoredOnTheNextTick() {
+        RecordingScheduler scheduler = new RecordingScheduler(true);
+        Simulation simulation = createSimulation(scheduler);
+        simulation.incrementTime(1.0);
+        simulation.incrementTime(1.0);
+
+        Assert.assertEquals(scheduler.listActiveFloors.get(0), "ActiveFloorIndex[3, 5]");
+        Assert.assertEquals(scheduler.listActiveFloors.get(1), "ActiveFloorIndex[3, 5]");
+    }
+
+    private static Simulation createSimulation(final AbstractElevatorScheduler scheduler) {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(new OpportunisticElevator("test1"));
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(3, 1, 0.0));
+        sortedRequests.add(new PickupRequest(5, -1, 0.0));
+        sortedRequests.add(new PickupRequest(8, -2, 2.5));
+        return new Simulation(listElevators, sortedRequests, scheduler);
+    }
+}
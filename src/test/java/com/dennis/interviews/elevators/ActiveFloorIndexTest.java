@@ -0,0 +1,82 @@
+package com.dennis.interviews.elevators;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ActiveFloorIndexTest extends AbstractTest {
+    @Test
+    public void testNearestFloor() {
+        ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+        Assert.assertEquals(activeFloors.nearest(5), ActiveFloorIndex.NONE);
+
+        activeFloors.add(3);
+        activeFloors.add(7);
+        activeFloors.add(200);
+        Assert.assertEquals(activeFloors.size(), 3);
+        Assert.assertEquals(activeFloors.nearest(5), 3);   // Ties go to the lower floor
+        Assert.assertEquals(activeFloors.nearest(6), 7);
+        Assert.assertEquals(activeFloors.nearest(-100), 3);
+        Assert.assertEquals(activeFloors.nearest(150), 200);
+        Assert.assertEquals(activeFloors.nearest(1000), 200);
+
+        Assert.assertTrue(activeFloors.remove(3));
+        Assert.assertFalse(activeFloors.remove(3));
+        Assert.assertEquals(activeFloors.nearest(5), 7);
+        Assert.assertEquals(activeFloors.toString(), "ActiveFloorIndex[7, 200]");
+
+        //  Floors below the first floor added (e.g. basements) grow the index downwards.
+        activeFloors.add(-70);
+        Assert.assertEquals(activeFloors.first(), -70);
+        Assert.assertEquals(activeFloors.nearest(-32), -70);
+        Assert.assertEquals(activeFloors.nearest(-31), 7);
+
+        ActiveFloorIndex copy = new ActiveFloorIndex();
+        copy.add(1000);
+        copy.copyFrom(activeFloors);
+        Assert.assertEquals(copy.toString(), "ActiveFloorIndex[-70, 7, 200]");
+        copy.clear();
+        Assert.assertTrue(copy.isEmpty());
+        Assert.assertEquals(activeFloors.size(), 3);
+    }
+
+    @Test
+    public void testModificationCountOnlyMovesWhenTheSetChanges() {
+        ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+        activeFloors.add(4);
+        final long modificationCount = activeFloors.getModificationCount();
+
+        activeFloors.add(4);
+        activeFloors.remove(9);
+        Assert.assertFalse(activeFloors.contains(9));
+        Assert.assertEquals(activeFloors.getModificationCount(), modificationCount);
+
+        activeFloors.remove(4);
+        Assert.assertTrue(activeFloors.getModificationCount() > modificationCount);
+    }
+
+    @Test
+    public void testMatchesTreeSet() {
+        Random random = new Random(11L);
+        ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+        TreeSet<Integer> expectedFloors = new TreeSet<>();
+        for (int counter = 0; counter < 5000; counter++) {
+            final int floor = random.nextInt(500) - 100;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(activeFloors.add(floor), expectedFloors.add(floor));
+            } else {
+                Assert.assertEquals(activeFloors.remove(floor), expectedFloors.remove(floor));
+            }
+
+            final int probe = random.nextInt(700) - 200;
+            final Integer ceiling = expectedFloors.ceiling(probe);
+            final Integer floorBelow = expectedFloors.floor(probe);
+            Assert.assertEquals(activeFloors.next(probe), (null == ceiling) ? ActiveFloorIndex.NONE : ceiling);
+            Assert.assertEquals(activeFloors.previous(probe),
+                    (null == floorBelow) ? ActiveFloorIndex.NONE : floorBelow);
+            Assert.assertEquals(activeFloors.size(), expectedFloors.size());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dennis.interviews.elevators;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FloorQueuesTest extends AbstractTest {
+    @Test
+    public void testQueuesGrowAndStayFirstInFirstOut() {
+        FloorQueues floorQueues = new FloorQueues();
+        floorQueues.ensureFloor(0);
+        floorQueues.ensureFloor(10);
+
+        //  Interleave adds and removes so the ring buffer wraps around while it grows.
+        for (int counter = 0; counter < 20; counter++) {
+            floorQueues.add(new PickupRequest(3, 1, counter));
+            floorQueues.add(new PickupRequest(3, 1, counter + 0.5));
+            Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.poll(3)), counter / 2.0,
+                    DELTA_ALLOWED);
+        }
+
+        Assert.assertEquals(floorQueues.size(3), 20);
+        Assert.assertEquals(floorQueues.getWaitingCount(), 20);
+        Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.getQueue(3, Direction.UP).get(19)), 19.5,
+                DELTA_ALLOWED);
+        Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.peek(3)), 10.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testFloorsOutsideOfBuilding() {
+        FloorQueues floorQueues = new FloorQueues();
+        floorQueues.ensureFloor(0);
+        floorQueues.ensureFloor(10);
+        Assert.assertEquals(floorQueues.size(-1), 0);
+        Assert.assertEquals(floorQueues.peek(11), RiderStore.NONE);
+        Assert.assertEquals(floorQueues.poll(11), RiderStore.NONE);
+
+        //  A rider below the lowest floor extends the building downwards.
+        floorQueues.add(new PickupRequest(-2, 3, 0.0));
+        Assert.assertEquals(floorQueues.getMinFloor(), -2);
+        Assert.assertEquals(floorQueues.getMaxFloor(), 10);
+        Assert.assertEquals(floorQueues.size(-2), 1);
+        Assert.assertEquals(floorQueues.getWaitingCount(), 1);
+    }
+
+    @Test
+    public void testRidersAreQueuedByDirection() {
+        FloorQueues floorQueues = new FloorQueues();
+        floorQueues.ensureFloor(0);
+        floorQueues.ensureFloor(10);
+
+        floorQueues.add(new PickupRequest(5, 3, 1.0));
+        floorQueues.add(new PickupRequest(5, -2, 2.0));
+        floorQueues.add(new PickupRequest(5, -4, 3.0));
+        floorQueues.add(new PickupRequest(7, -1, 4.0));
+        Assert.assertEquals(floorQueues.size(5), 3);
+        Assert.assertEquals(floorQueues.size(5, Direction.UP), 1);
+        Assert.assertEquals(floorQueues.size(5, Direction.DOWN), 2);
+        Assert.assertEquals(floorQueues.getActiveFloors(Direction.UP).toString(), "ActiveFloorIndex[5]");
+        Assert.assertEquals(floorQueues.getActiveFloors(Direction.DOWN).toString(), "ActiveFloorIndex[5, 7]");
+
+        //  Without a direction, the rider who has been waiting the longest comes first.
+        Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.peek(5)), 1.0, DELTA_ALLOWED);
+        Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.poll(5, Direction.DOWN)), 2.0,
+                DELTA_ALLOWED);
+        Assert.assertEquals(floorQueues.getRiders().getTimestamp(floorQueues.poll(5, Direction.UP)), 1.0,
+                DELTA_ALLOWED);
+        Assert.assertFalse(floorQueues.getActiveFloors(Direction.UP).contains(5));
+        Assert.assertTrue(floorQueues.getActiveFloors().contains(5));
+
+        floorQueues.poll(5, Direction.DOWN);
+        Assert.assertFalse(floorQueues.getActiveFloors().contains(5));
+        Assert.assertEquals(floorQueues.getWaitingCount(), 1);
+    }
+
+    @Test
+    public void testActiveFloorsFollowTheQueues() {
+        FloorQueues floorQueues = new FloorQueues();
+        floorQueues.ensureFloor(0);
+        floorQueues.ensureFloor(100);
+        Assert.assertTrue(floorQueues.getActiveFloors().isEmpty());
+
+        floorQueues.add(new PickupRequest(70, -1, 0.0));
+        floorQueues.add(new PickupRequest(70, 2, 1.0));
+        floorQueues.add(new PickupRequest(3, 2, 2.0));
+        Assert.assertEquals(floorQueues.getActiveFloors().toString(), "ActiveFloorIndex[3, 70]");
+
+        floorQueues.poll(70);
+        Assert.assertTrue(floorQueues.getActiveFloors().contains(70));
+        floorQueues.poll(70);
+        Assert.assertFalse(floorQueues.getActiveFloors().contains(70));
+        floorQueues.poll(3);
+        Assert.assertTrue(floorQueues.getActiveFloors().isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.dennis.interviews.elevators;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HallCallClaimsTest extends AbstractTest {
+    @Test
+    public void testClaimsMoveWithTheElevator() {
+        HallCallClaims claims = new HallCallClaims();
+        Assert.assertFalse(claims.isClaimed(3, Direction.UP));
+        Assert.assertEquals(claims.getClaimedFloor(0), ActiveFloorIndex.NONE);
+
+        claims.claim(0, 3, Direction.UP);
+        claims.claim(0, 3, Direction.DOWN);
+        Assert.assertEquals(claims.getClaimant(3, Direction.UP), 0);
+        Assert.assertEquals(claims.getClaimant(3, Direction.DOWN), 0);
+        Assert.assertEquals(claims.getClaimedFloor(0), 3);
+
+        //  Sending the elevator somewhere else releases its claims on floor 3.
+        claims.claim(0, -2, Direction.UP);
+        Assert.assertFalse(claims.isClaimed(3, Direction.UP));
+        Assert.assertFalse(claims.isClaimed(3, Direction.DOWN));
+        Assert.assertEquals(claims.getClaimant(-2, Direction.UP), 0);
+        Assert.assertEquals(claims.getClaimedFloor(0), -2);
+        Assert.assertEquals(claims.getClaimedFloors().size(), 1);
+
+        //  Reaching another floor does not release anything.
+        claims.release(0, 5);
+        Assert.assertEquals(claims.getClaimant(-2, Direction.UP), 0);
+
+        claims.release(0, -2);
+        Assert.assertEquals(claims.getClaimant(-2, Direction.UP), HallCallClaims.NONE);
+        Assert.assertEquals(claims.getClaimedFloor(0), ActiveFloorIndex.NONE);
+        Assert.assertTrue(claims.getClaimedFloors().isEmpty());
+    }
+
+    @Test
+    public void testHallCallIsTakenOver() {
+        HallCallClaims claims = new HallCallClaims();
+        claims.claim(0, 7, Direction.UP);
+        claims.claim(0, 7, Direction.DOWN);
+        claims.claim(1, 7, Direction.UP);
+        Assert.assertEquals(claims.getClaimant(7, Direction.UP), 1);
+        Assert.assertEquals(claims.getClaimant(7, Direction.DOWN), 0);
+        Assert.assertEquals(claims.getClaimedFloor(0), 7);
+
+        claims.claim(1, 7, Direction.DOWN);
+        Assert.assertEquals(claims.getClaimant(7, Direction.DOWN), 1);
+        Assert.assertEquals(claims.getClaimedFloor(0), ActiveFloorIndex.NONE);
+
+        //  The elevator that lost its claims going idle does not release the other elevator's claims.
+        claims.release(0);
+        Assert.assertEquals(claims.getClaimant(7, Direction.UP), 1);
+        Assert.assertEquals(claims.getClaimedFloors().size(), 1);
+    }
+
+    @Test
+    public void testClaimsAreWrittenToCheckpoints() throws IOException {
+        HallCallClaims claims = new HallCallClaims();
+        claims.claim(0, 4, Direction.DOWN);
+        claims.claim(2, 9, Direction.UP);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        claims.writeTo(new DataOutputStream(bytes));
+        HallCallClaims restoredClaims = new HallCallClaims();
+        restoredClaims.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 3);
+
+        Assert.assertEquals(restoredClaims.getClaimant(4, Direction.DOWN), 0);
+        Assert.assertEquals(restoredClaims.getClaimant(4, Direction.UP), HallCallClaims.NONE);
+        Assert.assertEquals(restoredClaims.getClaimant(9, Direction.UP), 2);
+        Assert.assertEquals(restoredClaims.getClaimedFloor(2), 9);
+        Assert.assertEquals(restoredClaims.getClaimedFloor(1), ActiveFloorIndex.NONE);
+    }
+}
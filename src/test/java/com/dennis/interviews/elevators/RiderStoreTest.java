@@ -0,0 +1,86 @@
+package com.dennis.interviews.elevators;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class RiderStoreTest extends AbstractTest {
+    @Test
+    public void testRidersSpanManyPages() {
+        RiderStore riders = new RiderStore();
+        final int numberOfRiders = 100000;
+        for (int counter = 0; counter < numberOfRiders; counter++) {
+            Assert.assertEquals(riders.add(counter % 10, 10 - (counter % 10), counter * 0.5), counter);
+        }
+
+        Assert.assertEquals(riders.size(), numberOfRiders);
+        Assert.assertEquals(riders.getStartingFloor(54321), 1);
+        Assert.assertEquals(riders.getTargetFloor(54321), 9);
+        Assert.assertEquals(riders.getDirection(54321), 8);
+        Assert.assertEquals(riders.getTimestamp(54321), 54321 * 0.5, DELTA_ALLOWED);
+        Assert.assertEquals(riders.getTimestamp(numberOfRiders - 1), (numberOfRiders - 1) * 0.5, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testRidersAreCopiedByDefault() {
+        RiderStore riders = new RiderStore();
+        PickupRequest pickupRequest = new PickupRequest(2, 3, 1.0);
+        final int riderId = riders.add(pickupRequest);
+
+        riders.setTimestampPickup(riderId, 20.0);
+        riders.setTimestampDropoff(riderId, 50.0);
+        Assert.assertEquals(pickupRequest.getTimestampPickup(), 0.0, DELTA_ALLOWED);
+
+        PickupRequest copy = riders.getPickupRequest(riderId);
+        Assert.assertNotSame(copy, pickupRequest);
+        Assert.assertNotSame(riders.getPickupRequest(riderId), copy);
+        Assert.assertEquals(copy.getStartingFloor(), 2);
+        Assert.assertEquals(copy.getTargetFloor(), 5);
+        Assert.assertEquals(copy.getTimestampPickup(), 20.0, DELTA_ALLOWED);
+        Assert.assertEquals(copy.getTimestampDropoff(), 50.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testKeptRequestsAreWrittenThroughUntilReleased() {
+        RiderStore riders = new RiderStore();
+        riders.setKeepingPickupRequests(true);
+        PickupRequest pickupRequest = new PickupRequest(2, 3, 1.0);
+        final int riderId = riders.add(pickupRequest);
+
+        riders.setTimestampPickup(riderId, 20.0);
+        riders.setTimestampDropoff(riderId, 50.0);
+        Assert.assertSame(riders.getPickupRequest(riderId), pickupRequest);
+        Assert.assertEquals(pickupRequest.getTimestampPickup(), 20.0, DELTA_ALLOWED);
+        Assert.assertEquals(pickupRequest.getTimestampDropoff(), 50.0, DELTA_ALLOWED);
+
+        //  The id is reused by a rider who did not arrive as a request.
+        riders.release(riderId);
+        Assert.assertEquals(riders.add(4, 6, 2.0), riderId);
+        Assert.assertNotSame(riders.getPickupRequest(riderId), pickupRequest);
+        Assert.assertEquals(riders.getPickupRequest(riderId).getStartingFloor(), 4);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testKeepingRequestsIsChosenUpFront() {
+        RiderStore riders = new RiderStore();
+        riders.add(0, 5, 1.0);
+        riders.setKeepingPickupRequests(true);
+    }
+
+    @Test
+    public void testReleasedIdsAreReused() {
+        RiderStore riders = new RiderStore();
+        final int first = riders.add(0, 5, 1.0);
+        final int second = riders.add(5, 0, 2.0);
+        riders.setTimestampPickup(first, 10.0);
+
+        riders.release(first);
+        Assert.assertEquals(riders.size(), 1);
+
+        final int third = riders.add(3, 4, 3.0);
+        Assert.assertEquals(third, first);
+        Assert.assertNotEquals(third, second);
+        Assert.assertEquals(riders.size(), 2);
+        Assert.assertEquals(riders.getStartingFloor(third), 3);
+        Assert.assertEquals(riders.getTimestampPickup(third), 0.0, DELTA_ALLOWED);
+    }
+}
@@ -1,12 +1,19 @@
 package com.dennis.interviews.elevators;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
 
 public class SimulationTest {
     public static final double DELTA_ALLOWED = 0.01;
@@ -169,16 +176,17 @@ public class SimulationTest {
         sortedRequests.add(pickupRequest);
 
         Simulation simulation = new Simulation(listElevators, sortedRequests);
-        Assert.assertEquals(simulation.getMapActiveRequestsByFloor().get(2).size(), 1);
-        Assert.assertEquals(simulation.getMapActiveRequestsByFloor().get(4).size(), 1);
+        //  Riders are only queued once the simulation reaches their arrival time.
+        Assert.assertEquals(simulation.getFloorQueues().size(2), 0);
+        Assert.assertEquals(simulation.getFloorQueues().size(4), 0);
 
         simulation.incrementTime(10.0);
         Assert.assertEquals(testElevator1.getCurrentPosition(), 2.0, DELTA_ALLOWED);
         Assert.assertEquals(testElevator1.getActiveRequests().size(), 1);
-        Assert.assertEquals(simulation.getMapActiveRequestsByFloor().get(2).size(), 0);
+        Assert.assertEquals(simulation.getFloorQueues().size(2), 0);
         Assert.assertEquals(testElevator2.getCurrentPosition(), 4.0, DELTA_ALLOWED);
         Assert.assertEquals(testElevator2.getActiveRequests().size(), 1);
-        Assert.assertEquals(simulation.getMapActiveRequestsByFloor().get(4).size(), 0);
+        Assert.assertEquals(simulation.getFloorQueues().size(4), 0);
 
         simulation.incrementTime(1.0);
         Assert.assertEquals(testElevator1.getCurrentPosition(), 2.0, DELTA_ALLOWED);
@@ -218,15 +226,537 @@ public class SimulationTest {
         Assert.assertEquals(testElevator1.getState(), AbstractElevator.State.LOADING);
         Assert.assertEquals(testElevator1.getActiveRequests().size(), 3);
         //  More passengers than capacity
-        Assert.assertEquals(simulation.getMapActiveRequestsByFloor().get(3).size(), 2);
+        Assert.assertEquals(simulation.getFloorQueues().size(3), 2);
         Assert.assertEquals(testElevator2.getCurrentPosition(), 2.5, DELTA_ALLOWED);
         Assert.assertEquals(testElevator2.getState(), AbstractElevator.State.ASCENDING);
         Assert.assertEquals(testElevator2.getActiveRequests().size(), 0);
 
+        //  The second elevator crosses floor 3 at time=20.0 (part way through the increment), and stops there for the
+        //  riders left behind by the first one.
         simulation.incrementTime(15.0);
         Assert.assertEquals(testElevator1.getCurrentPosition(), 3.5, DELTA_ALLOWED);
         Assert.assertEquals(testElevator1.getState(), AbstractElevator.State.ASCENDING);
-        Assert.assertEquals(testElevator2.getCurrentPosition(), 4.0, DELTA_ALLOWED);
-        Assert.assertEquals(testElevator2.getState(), AbstractElevator.State.ASCENDING);
+        Assert.assertEquals(testElevator2.getCurrentPosition(), 3.0, DELTA_ALLOWED);
+        Assert.assertEquals(testElevator2.getState(), AbstractElevator.State.LOADING);
+        Assert.assertEquals(testElevator2.getActiveRequests().size(), 2);
+        Assert.assertEquals(simulation.getFloorQueues().size(3), 0);
+        Assert.assertEquals(testElevator2.getActiveRequests().get(0).getTimestampPickup(), 35.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testRidersOnlyBoardElevatorsGoingTheirWay() {
+        AbstractElevator testElevator = new OpportunisticElevator("test1");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(testElevator);
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(1, 7, 0.5));
+        sortedRequests.add(new PickupRequest(4, -3, 0.5));
+        Simulation simulation = new Simulation(listElevators, sortedRequests, null);
+        simulation.incrementTime(1.0);
+
+        testElevator.setTargetFloor(1.0);
+        simulation.incrementTime(10.0);     // time = 11.0
+        Assert.assertEquals(testElevator.getState(), AbstractElevator.State.LOADING);
+        Assert.assertEquals(testElevator.getNumberOfRiders(), 1);
+
+        //  Passing floor 4 on the way up leaves the rider going down waiting.
+        simulation.incrementTime(55.0);     // time = 66.0
+        Assert.assertEquals(testElevator.getCurrentPosition(), 5.0, DELTA_ALLOWED);
+        Assert.assertEquals(testElevator.getState(), AbstractElevator.State.ASCENDING);
+        Assert.assertEquals(testElevator.getNumberOfRiders(), 1);
+        Assert.assertEquals(simulation.getFloorQueues().size(4, Direction.DOWN), 1);
+    }
+
+    @Test
+    public void testEmptyElevatorTurnsAroundAtTheEndOfItsRun() {
+        AbstractElevator testElevator = new OpportunisticElevator("test1");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(testElevator);
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(5, -3, 0.5));
+        Simulation simulation = new Simulation(listElevators, sortedRequests, null);
+        simulation.setUpdatePickupRequests(true);
+        simulation.incrementTime(1.0);
+
+        //  Sent up to a rider who is going down.
+        testElevator.setTargetFloor(5.0);
+        simulation.incrementTime(50.0);     // time = 51.0
+        Assert.assertEquals(testElevator.getState(), AbstractElevator.State.LOADING);
+        Assert.assertEquals(testElevator.getNumberOfRiders(), 1);
+        Assert.assertEquals(testElevator.getTargetFloor(), 2.0, DELTA_ALLOWED);
+
+        simulation.incrementTime(15.0);     // time = 66.0
+        Assert.assertEquals(testElevator.getState(), AbstractElevator.State.DESCENDING);
+
+        simulation.incrementTime(30.0);     // time = 96.0
+        Assert.assertEquals(testElevator.getNumberOfRiders(), 0);
+        Assert.assertEquals(sortedRequests.get(0).getTimestampPickup(), 66.0, DELTA_ALLOWED);
+        Assert.assertEquals(sortedRequests.get(0).getTimestampDropoff(), 96.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testBuildingOfIdenticalElevatorsFinishes() {
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(3, 2, 5.0));
+        sortedRequests.add(new PickupRequest(0, 4, 1.0));
+        sortedRequests.add(new PickupRequest(6, -6, 20.0));
+        Simulation simulation = new Simulation(2, sortedRequests);
+        simulation.setUpdatePickupRequests(true);
+        Assert.assertEquals(simulation.getIdleElevatorCount(), 2);
+
+        simulation.simulate();
+        Assert.assertEquals(simulation.getState(), Simulation.State.FINISHED);
+        Assert.assertEquals(simulation.getRiderStatistics().getNumberOfRiders(), 3L);
+        for (PickupRequest pickupRequest : sortedRequests) {
+            Assert.assertTrue(pickupRequest.getTimestampDropoff() > pickupRequest.getTimestamp());
+        }
+    }
+
+    @Test
+    public void testClaimedHallCallDoesNotGetASecondElevator() {
+        AbstractElevator firstElevator = new OpportunisticElevator("test1");
+        AbstractElevator secondElevator = new OpportunisticElevator("test2");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(firstElevator);
+        listElevators.add(secondElevator);
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(3, 2, 0.0));
+        Simulation simulation = new Simulation(listElevators, sortedRequests,
+                new GreedyMinimizeEmptyElevatorScheduler());
+
+        simulation.incrementTime(1.0);
+        Assert.assertEquals(firstElevator.getState(), AbstractElevator.State.ASCENDING);
+        Assert.assertEquals(simulation.getHallCallClaims().getClaimant(3, Direction.UP), firstElevator.getId());
+
+        //  The rider is still waiting, but the second elevator is left alone.
+        simulation.incrementTime(10.0);
+        Assert.assertEquals(secondElevator.getState(), AbstractElevator.State.IDLE);
+
+        while (Simulation.State.FINISHED != simulation.getState()) {
+            simulation.incrementTime(1.0);
+        }
+        Assert.assertEquals(secondElevator.getCurrentPosition(), 0.0, DELTA_ALLOWED);
+        Assert.assertEquals(firstElevator.getServicedRequests().size(), 1);
+        Assert.assertEquals(simulation.getHallCallClaims().getClaimedFloor(firstElevator.getId()),
+                ActiveFloorIndex.NONE);
+    }
+
+    @Test
+    public void testUnservedHallCallIsReleasedWhenTheElevatorArrives() {
+        AbstractElevator firstElevator = new OpportunisticElevator("test1");
+        AbstractElevator secondElevator = new OpportunisticElevator("test2");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(firstElevator);
+        listElevators.add(secondElevator);
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(3, 2, 0.0));
+        sortedRequests.add(new PickupRequest(3, -2, 0.0));
+        Simulation simulation = new Simulation(listElevators, sortedRequests,
+                new GreedyMinimizeEmptyElevatorScheduler());
+
+        simulation.incrementTime(1.0);
+        Assert.assertEquals(simulation.getHallCallClaims().getClaimant(3, Direction.DOWN), firstElevator.getId());
+        while (AbstractElevator.State.LOADING != firstElevator.getState()) {
+            Assert.assertEquals(secondElevator.getState(), AbstractElevator.State.IDLE);
+            simulation.incrementTime(1.0);
+        }
+
+        //  The first elevator took the rider going its way, so the rider going down gets the second elevator.
+        Assert.assertEquals(simulation.getFloorQueues().size(3, Direction.DOWN), 1);
+        simulation.incrementTime(1.0);
+        Assert.assertEquals(secondElevator.getState(), AbstractElevator.State.ASCENDING);
+        Assert.assertEquals(simulation.getHallCallClaims().getClaimant(3, Direction.DOWN), secondElevator.getId());
+
+        while (Simulation.State.FINISHED != simulation.getState()) {
+            simulation.incrementTime(1.0);
+        }
+        Assert.assertEquals(firstElevator.getServicedRequests().size(), 1);
+        Assert.assertEquals(secondElevator.getServicedRequests().size(), 1);
+        Assert.assertTrue(simulation.getHallCallClaims().getClaimedFloors().isEmpty());
+    }
+
+    @Test
+    public void testElevatorsReturnCopiesUnlessThePickupRequestsAreUpdated() {
+        for (boolean updatePickupRequests : new boolean[] { false, true }) {
+            AbstractElevator testElevator = new OpportunisticElevator("test1");
+            List<AbstractElevator> listElevators = new ArrayList<>();
+            listElevators.add(testElevator);
+
+            List<PickupRequest> sortedRequests = new ArrayList<>();
+            sortedRequests.add(new PickupRequest(1, 1, 0.5));
+            Simulation simulation = new Simulation(listElevators, sortedRequests, null);
+            simulation.setUpdatePickupRequests(updatePickupRequests);
+            simulation.incrementTime(1.0);
+            testElevator.setTargetFloor(1.0);
+            simulation.incrementTime(11.0);     // time = 12.0
+
+            PickupRequest activeRequest = testElevator.getActiveRequests().get(0);
+            Assert.assertEquals(activeRequest.getTimestampPickup(), 26.0, DELTA_ALLOWED);
+            Assert.assertEquals(activeRequest == sortedRequests.get(0), updatePickupRequests);
+            Assert.assertEquals(sortedRequests.get(0).getTimestampPickup() > 0.0, updatePickupRequests);
+
+            while (Simulation.State.FINISHED != simulation.getState()) {
+                simulation.incrementTime(1.0);
+            }
+            PickupRequest servicedRequest = testElevator.getServicedRequests().get(0);
+            Assert.assertEquals(servicedRequest.getTimestampDropoff(), 36.0, DELTA_ALLOWED);
+            Assert.assertEquals(servicedRequest == testElevator.getServicedRequests().get(0), updatePickupRequests);
+            Assert.assertEquals(servicedRequest == sortedRequests.get(0), updatePickupRequests);
+        }
+    }
+
+    @Test
+    public void testNextEventEngineMatchesFixedIncrementEngine() {
+        List<PickupRequest> tickRequests = createSparseDay();
+        Simulation tickSimulation = createSparseDaySimulation(tickRequests);
+        tickSimulation.simulate(Simulation.TimeAdvance.FIXED_INCREMENT);
+
+        List<PickupRequest> eventRequests = createSparseDay();
+        Simulation eventSimulation = createSparseDaySimulation(eventRequests);
+        eventSimulation.simulate(Simulation.TimeAdvance.NEXT_EVENT);
+
+        Assert.assertEquals(eventSimulation.getState(), Simulation.State.FINISHED);
+        Assert.assertEquals(eventSimulation.getCurrentTimestamp(), tickSimulation.getCurrentTimestamp(),
+                DELTA_ALLOWED);
+        for (int counter = 0; counter < tickRequests.size(); counter++) {
+            Assert.assertEquals(eventRequests.get(counter).getTimestampPickup(),
+                    tickRequests.get(counter).getTimestampPickup(), DELTA_ALLOWED);
+            Assert.assertEquals(eventRequests.get(counter).getTimestampDropoff(),
+                    tickRequests.get(counter).getTimestampDropoff(), DELTA_ALLOWED);
+        }
+
+        //  Only the floor crossings and loading of the elevators carrying riders are left, so a mostly idle day needs a
+        //  small fraction of the iterations, however many elevators are waiting for the scheduler.
+        Assert.assertTrue(eventSimulation.getIterationCount() * 12 < tickSimulation.getIterationCount(),
+                eventSimulation.getIterationCount() + " iterations against " + tickSimulation.getIterationCount());
+    }
+
+    @Test
+    public void testRestoredCheckpointContinuesLikeTheOriginal() throws IOException {
+        Simulation simulation = createBusySimulation();
+        Assert.assertEquals(simulation.simulateUntil(1000.0, Simulation.TimeAdvance.NEXT_EVENT),
+                Simulation.State.RUNNING);
+        Assert.assertEquals(simulation.getCurrentTimestamp(), 1000.0, DELTA_ALLOWED);
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        simulation.writeCheckpoint(checkpoint);
+        simulation.simulateUntil(Double.POSITIVE_INFINITY, Simulation.TimeAdvance.NEXT_EVENT);
+
+        Simulation restoredSimulation = createBusySimulation();
+        restoredSimulation.restoreCheckpoint(new ByteArrayInputStream(checkpoint.toByteArray()));
+        Assert.assertEquals(restoredSimulation.getCurrentTimestamp(), 1000.0, DELTA_ALLOWED);
+        restoredSimulation.simulateUntil(Double.POSITIVE_INFINITY, Simulation.TimeAdvance.NEXT_EVENT);
+
+        Assert.assertEquals(restoredSimulation.getState(), Simulation.State.FINISHED);
+        Assert.assertEquals(restoredSimulation.getCurrentTimestamp(), simulation.getCurrentTimestamp());
+        Assert.assertEquals(restoredSimulation.getIterationCount(), simulation.getIterationCount());
+        Assert.assertEquals(restoredSimulation.getRiderStatistics().getNumberOfRiders(),
+                simulation.getRiderStatistics().getNumberOfRiders());
+        Assert.assertEquals(restoredSimulation.getRiderStatistics().getWaitTimes().getMean(),
+                simulation.getRiderStatistics().getWaitTimes().getMean());
+        for (int counter = 0; counter < simulation.getElevators().size(); counter++) {
+            List<PickupRequest> servicedRequests = simulation.getElevators().get(counter).getServicedRequests();
+            List<PickupRequest> restoredRequests =
+                    restoredSimulation.getElevators().get(counter).getServicedRequests();
+            Assert.assertEquals(restoredRequests.size(), servicedRequests.size());
+            for (int index = 0; index < servicedRequests.size(); index++) {
+                Assert.assertEquals(restoredRequests.get(index).getTimestamp(),
+                        servicedRequests.get(index).getTimestamp());
+                Assert.assertEquals(restoredRequests.get(index).getTimestampDropoff(),
+                        servicedRequests.get(index).getTimestampDropoff());
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCheckpointCanNotBeRestoredIntoARunningSimulation() throws IOException {
+        Simulation simulation = createBusySimulation();
+        simulation.simulateUntil(100.0, Simulation.TimeAdvance.FIXED_INCREMENT);
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        simulation.writeCheckpoint(checkpoint);
+        simulation.restoreCheckpoint(new ByteArrayInputStream(checkpoint.toByteArray()));
+    }
+
+    @Test
+    public void testFixedPointClockMatchesFloatingPointClock() {
+        List<PickupRequest> floatingRequests = createSparseRequests();
+        Simulation floatingSimulation = createSparseSimulation(floatingRequests);
+        floatingSimulation.simulate(Simulation.TimeAdvance.FIXED_INCREMENT);
+
+        List<PickupRequest> tickRequests = createSparseRequests();
+        Simulation tickSimulation = createSparseSimulation(tickRequests);
+        tickSimulation.setClock(Simulation.Clock.FIXED_POINT);
+        tickSimulation.simulate(Simulation.TimeAdvance.FIXED_INCREMENT);
+
+        List<PickupRequest> eventRequests = createSparseRequests();
+        Simulation eventSimulation = createSparseSimulation(eventRequests);
+        eventSimulation.setClock(Simulation.Clock.FIXED_POINT);
+        eventSimulation.simulate(Simulation.TimeAdvance.NEXT_EVENT);
+
+        Assert.assertEquals(tickSimulation.getCurrentTimestamp(), floatingSimulation.getCurrentTimestamp());
+        Assert.assertEquals(eventSimulation.getCurrentTimestamp(), tickSimulation.getCurrentTimestamp());
+        for (int counter = 0; counter < floatingRequests.size(); counter++) {
+            Assert.assertEquals(tickRequests.get(counter).getTimestampPickup(),
+                    floatingRequests.get(counter).getTimestampPickup(), DELTA_ALLOWED);
+            Assert.assertEquals(tickRequests.get(counter).getTimestampDropoff(),
+                    floatingRequests.get(counter).getTimestampDropoff(), DELTA_ALLOWED);
+
+            //  Both engines do the same integer arithmetic, so they agree to the bit.
+            Assert.assertEquals(eventRequests.get(counter).getTimestampPickup(),
+                    tickRequests.get(counter).getTimestampPickup());
+            Assert.assertEquals(eventRequests.get(counter).getTimestampDropoff(),
+                    tickRequests.get(counter).getTimestampDropoff());
+        }
+    }
+
+    @Test
+    public void testFixedPointClockDoesNotDrift() {
+        OpportunisticElevator elevator = new OpportunisticElevator("test1");
+        elevator.setMaxFloor(1000.0);
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(elevator);
+
+        Simulation simulation = new Simulation(listElevators, new ArrayList<PickupRequest>(), null);
+        simulation.setClock(Simulation.Clock.FIXED_POINT);
+        elevator.setTargetFloor(1000.0);
+        for (int counter = 0; counter < 36000; counter++) {
+            simulation.incrementTime(0.1);
+        }
+
+        Assert.assertEquals(simulation.getCurrentTimestamp(), 3600.0);
+        Assert.assertEquals(elevator.getCurrentTimestamp(), 3600.0);
+        Assert.assertEquals(elevator.getTimeInCurrentState(), 3600.0);
+        Assert.assertEquals(elevator.getCurrentPosition(), 360.0);
+        Assert.assertEquals(elevator.getState(), AbstractElevator.State.ASCENDING);
+    }
+
+    @Test
+    public void testSwitchingBackToFloatingPointKeepsTheElevators() {
+        AbstractElevator elevator = new OpportunisticElevator("test1");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(elevator);
+
+        Simulation simulation = new Simulation(listElevators, new ArrayList<PickupRequest>(), null);
+        simulation.setClock(Simulation.Clock.FIXED_POINT);
+        elevator.setCurrentPosition(2.5);
+        elevator.setSpeed(0.25);
+        elevator.setTimeInCurrentState(4.0);
+        simulation.setClock(Simulation.Clock.FLOATING_POINT);
+
+        Assert.assertEquals(elevator.getCurrentPosition(), 2.5);
+        Assert.assertEquals(elevator.getSpeed(), 0.25);
+        Assert.assertEquals(elevator.getTimeInCurrentState(), 4.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testFixedPointClockNeedsWholeMilliseconds() {
+        Simulation simulation = createSparseSimulation(createSparseRequests());
+        simulation.setClock(Simulation.Clock.FIXED_POINT);
+        simulation.incrementTime(0.0005);
+    }
+
+    @Test
+    public void testRestoredFixedPointCheckpointContinuesLikeTheOriginal() throws IOException {
+        Simulation simulation = createBusySimulation();
+        simulation.setClock(Simulation.Clock.FIXED_POINT);
+        simulation.simulateUntil(1000.0, Simulation.TimeAdvance.NEXT_EVENT);
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        simulation.writeCheckpoint(checkpoint);
+        simulation.simulateUntil(Double.POSITIVE_INFINITY, Simulation.TimeAdvance.NEXT_EVENT);
+
+        Simulation restoredSimulation = createBusySimulation();
+        restoredSimulation.setClock(Simulation.Clock.FIXED_POINT);
+        restoredSimulation.restoreCheckpoint(new ByteArrayInputStream(checkpoint.toByteArray()));
+        restoredSimulation.simulateUntil(Double.POSITIVE_INFINITY, Simulation.TimeAdvance.NEXT_EVENT);
+
+        Assert.assertEquals(restoredSimulation.getCurrentTimestamp(), simulation.getCurrentTimestamp());
+        for (int counter = 0; counter < simulation.getElevators().size(); counter++) {
+            List<PickupRequest> servicedRequests = simulation.getElevators().get(counter).getServicedRequests();
+            List<PickupRequest> restoredRequests =
+                    restoredSimulation.getElevators().get(counter).getServicedRequests();
+            Assert.assertEquals(restoredRequests.size(), servicedRequests.size());
+            for (int index = 0; index < servicedRequests.size(); index++) {
+                Assert.assertEquals(restoredRequests.get(index).getTimestampDropoff(),
+                        servicedRequests.get(index).getTimestampDropoff());
+            }
+        }
+
+        //  A checkpoint can only be restored with the clock it was written with.
+        Simulation floatingSimulation = createBusySimulation();
+        try {
+            floatingSimulation.restoreCheckpoint(new ByteArrayInputStream(checkpoint.toByteArray()));
+            Assert.fail("Restored a fixed point checkpoint into a floating point simulation");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("clock"));
+        }
+    }
+
+    @Test
+    public void testStatisticsWithoutRetainingServicedRequests() {
+        List<PickupRequest> requests = createSparseRequests();
+        Simulation simulation = createSparseSimulation(requests);
+        simulation.setRetainServicedRequests(false);
+        simulation.simulate(Simulation.TimeAdvance.NEXT_EVENT);
+
+        double totalWaitTime = 0.0;
+        int numberServiced = 0;
+        for (PickupRequest pickupRequest : requests) {
+            if (pickupRequest.getTimestampDropoff() > 0.0) {
+                totalWaitTime += pickupRequest.getTimestampPickup() - pickupRequest.getTimestamp();
+                numberServiced++;
+            }
+        }
+        for (AbstractElevator elevator : simulation.getElevators()) {
+            Assert.assertTrue(elevator.getServicedRequests().isEmpty());
+        }
+
+        Assert.assertTrue(numberServiced > 0);
+        Assert.assertEquals(simulation.getRiderStatistics().getNumberOfRiders(), numberServiced);
+        Assert.assertEquals(simulation.getRiderStatistics().getWaitTimes().getMean(),
+                totalWaitTime / numberServiced, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testIdleElevatorsAreTrackedAsTheyChangeState() {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        for (int counter = 0; counter < 70; counter++) {
+            listElevators.add(new OpportunisticElevator("test" + counter));
+        }
+        //  Already busy before joining the simulation.
+        listElevators.get(3).setTargetFloor(2.0);
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(5, 1, 0.0));
+        Simulation simulation = new Simulation(listElevators, sortedRequests,
+                new GreedyMinimizeEmptyElevatorScheduler());
+        Assert.assertEquals(simulation.getIdleElevatorCount(), 69);
+        Assert.assertFalse(simulation.getIdleElevators().contains(listElevators.get(3)));
+
+        //  The rider on floor 5 gets the first idle elevator.
+        simulation.incrementTime(1.0);
+        Assert.assertEquals(simulation.getIdleElevatorCount(), 68);
+        List<AbstractElevator> listIdleElevators = simulation.getIdleElevators();
+        Assert.assertEquals(listIdleElevators.size(), 68);
+        Assert.assertEquals(listIdleElevators.get(0), listElevators.get(1));
+        Assert.assertEquals(listIdleElevators.get(67), listElevators.get(69));
+
+        while (Simulation.State.FINISHED != simulation.getState()) {
+            simulation.incrementTime(1.0);
+        }
+        Assert.assertEquals(simulation.getIdleElevatorCount(), 70);
+        Assert.assertSame(simulation.getIdleElevators(), listIdleElevators);
+        Assert.assertEquals(listIdleElevators.size(), 70);
+    }
+
+    @Test
+    public void testArrivalsAreStreamedWhenTheyArrive() {
+        AbstractElevator testElevator = new OpportunisticElevator("test1");
+        List<AbstractElevator> listElevators = new LinkedList<>();
+        listElevators.add(testElevator);
+
+        List<PickupRequest> sortedRequests = new LinkedList<>();
+        sortedRequests.add(new PickupRequest(2, 2, 5.5));
+        sortedRequests.add(new PickupRequest(4, -2, 10.0));
+
+        Simulation simulation = new Simulation(listElevators, sortedRequests.iterator(), null);
+        simulation.incrementTime(5.0);
+        Assert.assertEquals(simulation.getFloorQueues().getWaitingCount(), 0);
+
+        simulation.incrementTime(1.0);
+        Assert.assertEquals(simulation.getFloorQueues().size(2), 1);
+        Assert.assertEquals(simulation.getFloorQueues().size(4), 0);
+
+        simulation.incrementTime(5.0);
+        Assert.assertEquals(simulation.getFloorQueues().size(4), 1);
+        Assert.assertEquals(simulation.getFloorQueues().getWaitingCount(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testArrivalsOutOfOrder() {
+        List<AbstractElevator> listElevators = new LinkedList<>();
+        listElevators.add(new OpportunisticElevator("test1"));
+
+        List<PickupRequest> unsortedRequests = new LinkedList<>();
+        unsortedRequests.add(new PickupRequest(2, 2, 5.0));
+        unsortedRequests.add(new PickupRequest(4, -2, 1.0));
+
+        Simulation simulation = new Simulation(listElevators, unsortedRequests.iterator(), null);
+        simulation.incrementTime(10.0);
+    }
+
+    private static List<PickupRequest> createSparseRequests() {
+        Random random = new Random(42L);
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        double timestamp = 0.0;
+        for (int counter = 0; counter < 10; counter++) {
+            timestamp += 100.0 + random.nextDouble() * 900.0;
+            int startingFloor = random.nextInt(11);
+            int targetFloor = random.nextInt(11);
+            while (targetFloor == startingFloor) {
+                targetFloor = random.nextInt(11);
+            }
+            sortedRequests.add(new PickupRequest(startingFloor, targetFloor - startingFloor, timestamp));
+        }
+
+        return sortedRequests;
+    }
+
+    private static Simulation createBusySimulation() {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(new OpportunisticElevator("test1"));
+        listElevators.add(new OpportunisticElevator("test2"));
+
+        return new Simulation(listElevators,
+                new RegularIntervalGenerator(0, 10, 3000.0, 7L).streamPickupRequests(0.02, 3000.0),
+                new GreedyMinimizeEmptyElevatorScheduler());
+    }
+
+    /**
+     * @return eight hours of one rider every ten minutes, between random floors of a 20 story building
+     */
+    private static List<PickupRequest> createSparseDay() {
+        Random random = new Random(3L);
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        for (double timestamp = 300.0; timestamp < 8 * 3600.0; timestamp += 600.0) {
+            int startingFloor = random.nextInt(21);
+            int targetFloor = random.nextInt(21);
+            while (targetFloor == startingFloor) {
+                targetFloor = random.nextInt(21);
+            }
+            sortedRequests.add(new PickupRequest(startingFloor, targetFloor - startingFloor, timestamp));
+        }
+
+        return sortedRequests;
+    }
+
+    private static Simulation createSparseDaySimulation(final List<PickupRequest> sortedRequests) {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        for (int counter = 0; counter < 4; counter++) {
+            AbstractElevator elevator = new OpportunisticElevator("test" + counter);
+            elevator.setMaxFloor(20.0);
+            listElevators.add(elevator);
+        }
+
+        Simulation simulation =
+                new Simulation(listElevators, sortedRequests, new GreedyMinimizeEmptyElevatorScheduler());
+        simulation.setUpdatePickupRequests(true);
+        return simulation;
+    }
+
+    private static Simulation createSparseSimulation(final List<PickupRequest> sortedRequests) {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(new OpportunisticElevator("test1"));
+        listElevators.add(new OpportunisticElevator("test2"));
+
+        Simulation simulation =
+                new Simulation(listElevators, sortedRequests, new GreedyMinimizeEmptyElevatorScheduler());
+        simulation.setUpdatePickupRequests(true);
+        return simulation;
     }
 }
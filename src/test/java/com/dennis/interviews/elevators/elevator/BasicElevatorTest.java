@@ -5,6 +5,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.PickupRequest;
 
 /**
  * Tests basic elevator movement and state changes.
@@ -95,6 +96,82 @@ public class BasicElevatorTest extends AbstractElevatorTest {
         Assert.assertEquals(elevator.getTimeInCurrentState(), 15.5, DELTA_ALLOWED);
     }
 
+    @Test
+    public void testExpressElevatorCrossesManyFloorsInOneIncrement() {
+        AbstractElevator elevator = createExpressElevator();
+
+        //  At 2 floors per second, the riders get to floor 3 at 1.5s and the doors close at 16.5s, so they get to
+        //  floor 7 at 18.5s and the elevator is idle at floor 10 from 35s.
+        elevator.incrementTime(1.0);
+        Assert.assertEquals(elevator.getCurrentPosition(), 2.0, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getState(), AbstractElevator.State.ASCENDING);
+        elevator.incrementTime(1.0);
+        Assert.assertEquals(elevator.getCurrentPosition(), 3.0, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getState(), AbstractElevator.State.LOADING);
+        Assert.assertEquals(elevator.getTimeInCurrentState(), 0.5, DELTA_ALLOWED);
+
+        elevator.incrementTime(100.0);
+        Assert.assertEquals(elevator.getCurrentPosition(), 10.0, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getState(), AbstractElevator.State.IDLE);
+        Assert.assertEquals(elevator.getCurrentTimestamp(), 102.0, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getServicedRequests().get(0).getTimestampDropoff(), 1.5, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getServicedRequests().get(1).getTimestampDropoff(), 18.5, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getServicedRequests().get(2).getTimestampDropoff(), 35.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testOneLargeIncrementMatchesManySmallOnes() {
+        AbstractElevator smallStepElevator = createExpressElevator();
+        for (int counter = 0; counter < 1000; counter++) {
+            smallStepElevator.incrementTime(0.1);
+        }
+
+        AbstractElevator largeStepElevator = createExpressElevator();
+        largeStepElevator.incrementTime(100.0);
+
+        Assert.assertEquals(largeStepElevator.getCurrentPosition(), smallStepElevator.getCurrentPosition(),
+                DELTA_ALLOWED);
+        Assert.assertEquals(largeStepElevator.getState(), smallStepElevator.getState());
+        Assert.assertEquals(largeStepElevator.getCurrentTimestamp(), smallStepElevator.getCurrentTimestamp(),
+                DELTA_ALLOWED);
+        for (int counter = 0; counter < 3; counter++) {
+            Assert.assertEquals(largeStepElevator.getServicedRequests().get(counter).getTimestampDropoff(),
+                    smallStepElevator.getServicedRequests().get(counter).getTimestampDropoff(), DELTA_ALLOWED);
+        }
+    }
+
+    @Test
+    public void testStopsAtEveryFloorInOneIncrement() {
+        //  Far more stops than the stack could take if every state change re-entered incrementTime().
+        final int numberOfFloors = 20000;
+        AbstractElevator elevator = new OpportunisticElevator("test");
+        elevator.setMaxFloor(numberOfFloors);
+        elevator.setSpeed(10.0);
+        elevator.setPickupTimeRequired(0.0);
+        for (int floor = 1; floor <= numberOfFloors; floor++) {
+            elevator.addPickupRequest(new PickupRequest(0, floor, 0.0));
+        }
+        elevator.setTargetFloor(numberOfFloors);
+
+        elevator.incrementTime(numberOfFloors);
+        Assert.assertEquals(elevator.getCurrentPosition(), numberOfFloors, DELTA_ALLOWED);
+        Assert.assertEquals(elevator.getState(), AbstractElevator.State.IDLE);
+        Assert.assertEquals(elevator.getNumberOfRiders(), 0);
+        Assert.assertEquals(elevator.getServicedRequests().size(), numberOfFloors);
+        Assert.assertEquals(elevator.getCurrentTimestamp(), numberOfFloors, DELTA_ALLOWED);
+    }
+
+    private static AbstractElevator createExpressElevator() {
+        AbstractElevator elevator = new OpportunisticElevator("express");
+        elevator.setSpeed(2.0);
+        elevator.setMaxFloor(10.0);
+        elevator.addPickupRequest(new PickupRequest(0, 3, 0.0));
+        elevator.addPickupRequest(new PickupRequest(0, 7, 0.0));
+        elevator.addPickupRequest(new PickupRequest(0, 10, 0.0));
+        elevator.setTargetFloor(10.0);
+        return elevator;
+    }
+
     @DataProvider(name = "getDataForTestDidCrossFloorAscending")
     public Object[][] getDataForTestDidCrossFloorAscending() {
         return new Object[][] {
@@ -0,0 +1,86 @@
+package com.dennis.interviews.elevators.elevator;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.PickupRequest;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.recorder.EventRecorder;
+
+public class ElevatorAllocationTest extends AbstractElevatorTest {
+    private static final int FLOORS_PER_TRIP = 5;
+    /**
+     * A fixed allowance for the measurement itself, which does not grow with the number of trips (a single object per
+     * trip would already go over it).
+     */
+    private static final long ALLOCATION_ALLOWED = 256L;
+    /**
+     * The least allocating of several measurements counts, so that a one-off allocation by the JVM itself (e.g. a
+     * recompilation) during one of them does not fail the test, while any allocation per trip shows up in all of them.
+     */
+    private static final int MEASUREMENTS = 5;
+
+    @Test
+    public void testCrossingFloorsDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("Thread allocation counters are not available on this JVM");
+        }
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        AbstractElevator elevator = new OpportunisticElevator("test");
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(elevator);
+        Simulation simulation = new Simulation(listElevators, Collections.<PickupRequest>emptyIterator(), null);
+        simulation.setRetainServicedRequests(false);
+        //  Tracing into a (wrapping) ring buffer must not allocate either.
+        simulation.setEventRecorder(new EventRecorder(1024));
+
+        PickupRequest upRider = new PickupRequest(0, FLOORS_PER_TRIP, 0.0);
+        PickupRequest downRider = new PickupRequest(FLOORS_PER_TRIP, -FLOORS_PER_TRIP, 0.0);
+
+        //  Warm up, so the buckets of the elevator are created and the code is compiled.
+        runRoundTrips(elevator, upRider, downRider, 2000);
+
+        final int roundTrips = 1000;
+        long allocated = Long.MAX_VALUE;
+        for (int counter = 0; counter < MEASUREMENTS; counter++) {
+            final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            runRoundTrips(elevator, upRider, downRider, roundTrips);
+            allocated = Math.min(allocated, threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+        }
+
+        Assert.assertEquals(simulation.getRiderStatistics().getNumberOfRiders(),
+                2L * (2000 + MEASUREMENTS * roundTrips));
+        Assert.assertEquals(simulation.getEventRecorder().size(), 1024);
+        Assert.assertTrue(allocated <= ALLOCATION_ALLOWED,
+                "Allocated " + allocated + " bytes while crossing floors");
+    }
+
+    private static void runRoundTrips(final AbstractElevator elevator, final PickupRequest upRider,
+            final PickupRequest downRider, final int roundTrips) {
+        for (int counter = 0; counter < roundTrips; counter++) {
+            elevator.addPickupRequest(upRider);
+            elevator.setTargetFloor(FLOORS_PER_TRIP);
+            runUntilIdle(elevator);
+
+            elevator.addPickupRequest(downRider);
+            elevator.setTargetFloor(0);
+            runUntilIdle(elevator);
+        }
+    }
+
+    private static void runUntilIdle(final AbstractElevator elevator) {
+        while (AbstractElevator.State.IDLE != elevator.getState()) {
+            elevator.incrementTime(1.0);
+        }
+    }
+}
@@ -16,8 +16,7 @@ public class OpportunisticElevatorTest extends AbstractElevatorTest {
         AbstractElevator elevator = new OpportunisticElevator("test");
         elevator.setCurrentPosition(1.0);
         elevator.setMaxFloor(10.0);
-        //elevator.addPickupRequest(pickupRequest);
-        elevator.getActiveRequests().add(pickupRequest);
+        elevator.addPickupRequest(pickupRequest);
 
         //  Make the elevator ascend with no interruptions
         elevator.setTargetFloor(10.0);
@@ -50,8 +49,7 @@ public class OpportunisticElevatorTest extends AbstractElevatorTest {
         AbstractElevator elevator = new OpportunisticElevator("test");
         elevator.setCurrentPosition(6.0);
         elevator.setMaxFloor(10.0);
-        //elevator.addPickupRequest(pickupRequest);
-        elevator.getActiveRequests().add(pickupRequest);
+        elevator.addPickupRequest(pickupRequest);
 
         //  Make the elevator ascend with no interruptions
         elevator.setTargetFloor(1.0);
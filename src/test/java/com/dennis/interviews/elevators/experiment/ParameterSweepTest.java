@@ -0,0 +1,52 @@
+package com.dennis.interviews.elevators.experiment;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+import com.dennis.interviews.elevators.scheduler.GreedyScheduler;
+
+public class ParameterSweepTest extends AbstractTest {
+    @Test
+    public void testEveryCellWritesOneRow() {
+        List<Class<? extends AbstractElevatorScheduler>> schedulerClasses = new ArrayList<>();
+        schedulerClasses.add(GreedyScheduler.class);
+        schedulerClasses.add(GreedyMinimizeEmptyElevatorScheduler.class);
+
+        ParameterSweep sweep = new ParameterSweep(0, 10, 1800.0);
+        sweep.setElevatorCounts(1, 2);
+        sweep.setSchedulerClasses(schedulerClasses);
+        sweep.setArrivalsPerHour(10.0, 20.0);
+        sweep.setNumberOfReplications(3);
+
+        StringWriter output = new StringWriter();
+        Map<SweepCell, ReplicationReport> results = sweep.run(3, 42L, output);
+
+        Assert.assertEquals(results.size(), 8);
+        String[] rows = output.toString().split(System.lineSeparator());
+        Assert.assertEquals(rows.length, 9);
+        Assert.assertTrue(rows[0].startsWith("elevators,scheduler,arrivalsPerHour"));
+        for (Map.Entry<SweepCell, ReplicationReport> entry : results.entrySet()) {
+            Assert.assertEquals(entry.getValue().getNumberOfReplications(), 3);
+        }
+
+        //  Common random numbers: cells with the same arrival rate saw exactly the same riders.
+        List<ReplicationReport> reports = new ArrayList<>(results.values());
+        Assert.assertTrue(reports.get(0).getNumberOfRidersServiced() > 0);
+        Assert.assertEquals(reports.get(0).getNumberOfRidersServiced(), reports.get(2).getNumberOfRidersServiced());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSchedulerWithoutDefaultConstructor() {
+        List<Class<? extends AbstractElevatorScheduler>> schedulerClasses = new ArrayList<>();
+        schedulerClasses.add(AbstractElevatorScheduler.class);
+        new ParameterSweep(0, 10, 1800.0).setSchedulerClasses(schedulerClasses);
+    }
+}
@@ -0,0 +1,67 @@
+package com.dennis.interviews.elevators.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+import com.dennis.interviews.elevators.pickup.RegularIntervalGenerator;
+import com.dennis.interviews.elevators.scheduler.GreedyMinimizeEmptyElevatorScheduler;
+
+public class ReplicationRunnerTest extends AbstractTest {
+    private static final SimulationFactory FACTORY = new SimulationFactory() {
+        @Override
+        public Simulation createSimulation(final long seed) {
+            List<AbstractElevator> listElevators = new ArrayList<>();
+            listElevators.add(new OpportunisticElevator("test1"));
+            listElevators.add(new OpportunisticElevator("test2"));
+
+            return new Simulation(listElevators,
+                    new RegularIntervalGenerator(0, 10, 2000.0, seed).streamPickupRequests(0.005, 2000.0),
+                    new GreedyMinimizeEmptyElevatorScheduler());
+        }
+    };
+
+    @Test
+    public void testReplicationsAreAggregatedAndReproducible() {
+        ReplicationReport report;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            report = new ReplicationRunner(FACTORY, pool).run(8, 42L);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(report.getNumberOfReplications(), 8);
+        Assert.assertTrue(report.getNumberOfRidersServiced() > 0);
+        Assert.assertTrue(report.getMeanWaitTime() > 0.0);
+        Assert.assertTrue(report.getWaitTimeConfidenceHalfWidth() > 0.0);
+        for (int counter = 0; counter < 8; counter++) {
+            Assert.assertEquals(report.getResults().get(counter).getReplication(), counter);
+        }
+
+        //  The same master seed replays the same experiment, no matter how the replications were scheduled.
+        ReplicationReport replayedReport;
+        ForkJoinPool replayPool = new ForkJoinPool(2);
+        try {
+            replayedReport = new ReplicationRunner(FACTORY, replayPool).run(8, 42L);
+        } finally {
+            replayPool.shutdown();
+        }
+        Assert.assertEquals(replayedReport.getMeanWaitTime(), report.getMeanWaitTime());
+        Assert.assertEquals(replayedReport.getMeanRideTime(), report.getMeanRideTime());
+        Assert.assertEquals(replayedReport.getNumberOfRidersServiced(), report.getNumberOfRidersServiced());
+
+        //  ... and any single replication can be replayed from its own seed.
+        Simulation simulation = FACTORY.createSimulation(report.getResults().get(3).getSeed());
+        simulation.simulate(Simulation.TimeAdvance.NEXT_EVENT);
+        Assert.assertEquals(new ReplicationResult(3, 0L, simulation).getMeanWaitTime(),
+                report.getResults().get(3).getMeanWaitTime());
+    }
+}
@@ -0,0 +1,49 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.util.SplittableRandom;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractTest;
+
+public class AliasTableTest extends AbstractTest {
+    @Test
+    public void testOutcomesAreDrawnInProportionToTheirWeights() {
+        final double[] weights = { 5.0, 0.0, 1.0, 3.0, 0.5, 0.5 };
+        AliasTable aliasTable = new AliasTable(weights);
+        Assert.assertEquals(aliasTable.size(), weights.length);
+
+        SplittableRandom random = new SplittableRandom(42L);
+        final int numberOfSamples = 1000000;
+        int[] counts = new int[weights.length];
+        for (int counter = 0; counter < numberOfSamples; counter++) {
+            counts[aliasTable.sample(random)]++;
+        }
+
+        Assert.assertEquals(counts[1], 0);
+        for (int outcome = 0; outcome < weights.length; outcome++) {
+            //  Within 5 standard deviations (at most 500 samples off, for a million samples).
+            Assert.assertEquals((double) counts[outcome], numberOfSamples * weights[outcome] / 10.0, 2500.0);
+        }
+    }
+
+    @Test
+    public void testSingleOutcome() {
+        AliasTable aliasTable = new AliasTable(new double[] { 0.0, 0.0, 2.0 });
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int counter = 0; counter < 1000; counter++) {
+            Assert.assertEquals(aliasTable.sample(random), 2);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWeightsMustNotAllBeZero() {
+        new AliasTable(new double[] { 0.0, 0.0 });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWeightsMustNotBeNegative() {
+        new AliasTable(new double[] { 1.0, -1.0 });
+    }
+}
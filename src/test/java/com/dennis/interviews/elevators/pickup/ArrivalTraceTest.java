@@ -0,0 +1,107 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.PickupRequest;
+
+public class ArrivalTraceTest extends AbstractTest {
+    @Test
+    public void testTraceReplaysTheArrivalsWritten() throws IOException {
+        final Path traceFile = Files.createTempFile("elevators", ".arrivals");
+        try {
+            try (ArrivalTraceWriter writer = new ArrivalTraceWriter(traceFile, false)) {
+                Iterator<PickupRequest> arrivals =
+                        new RegularIntervalGenerator(0, 10, 20000.0, 42L).streamPickupRequests(0.5, 20000.0);
+                while (arrivals.hasNext()) {
+                    writer.write(arrivals.next());
+                }
+            }
+
+            try (ArrivalTraceReader reader = new ArrivalTraceReader(traceFile)) {
+                Assert.assertFalse(reader.hasWeights());
+                Iterator<PickupRequest> expected =
+                        new RegularIntervalGenerator(0, 10, 20000.0, 42L).streamPickupRequests(0.5, 20000.0);
+                long count = 0L;
+                while (expected.hasNext()) {
+                    PickupRequest expectedRequest = expected.next();
+                    PickupRequest pickupRequest = reader.next();
+                    Assert.assertEquals(pickupRequest.getTimestamp(), expectedRequest.getTimestamp());
+                    Assert.assertEquals(pickupRequest.getStartingFloor(), expectedRequest.getStartingFloor());
+                    Assert.assertEquals(pickupRequest.getTargetFloor(), expectedRequest.getTargetFloor());
+                    Assert.assertEquals(reader.getWeight(), 1);
+                    count++;
+                }
+                Assert.assertFalse(reader.hasNext());
+                Assert.assertEquals(reader.getRecordCount(), count);
+                Assert.assertEquals(Files.size(traceFile), 16L + count * 16L);
+            }
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+
+    @Test
+    public void testTraceWithWeights() throws IOException {
+        final Path traceFile = Files.createTempFile("elevators", ".arrivals");
+        try {
+            try (ArrivalTraceWriter writer = new ArrivalTraceWriter(traceFile, true)) {
+                writer.write(1.5, 0, 7, 80);
+                writer.write(2.5, 9, 1, 65);
+                writer.write(2.5, -2, 3);
+            }
+
+            try (ArrivalTraceReader reader = new ArrivalTraceReader(traceFile)) {
+                Assert.assertTrue(reader.hasWeights());
+                Assert.assertEquals(reader.getRecordCount(), 3L);
+
+                PickupRequest pickupRequest = reader.next();
+                Assert.assertEquals(pickupRequest.getTimestamp(), 1.5, DELTA_ALLOWED);
+                Assert.assertEquals(pickupRequest.getStartingFloor(), 0);
+                Assert.assertEquals(pickupRequest.getTargetFloor(), 7);
+                Assert.assertEquals(reader.getWeight(), 80);
+
+                pickupRequest = reader.next();
+                Assert.assertEquals(pickupRequest.getStartingFloor(), 9);
+                Assert.assertEquals(pickupRequest.getTargetFloor(), 1);
+                Assert.assertEquals(reader.getWeight(), 65);
+
+                pickupRequest = reader.next();
+                Assert.assertEquals(pickupRequest.getStartingFloor(), -2);
+                Assert.assertEquals(pickupRequest.getTargetFloor(), 3);
+                Assert.assertEquals(reader.getWeight(), 1);
+                Assert.assertFalse(reader.hasNext());
+            }
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testArrivalsOutOfOrder() throws IOException {
+        final Path traceFile = Files.createTempFile("elevators", ".arrivals");
+        try (ArrivalTraceWriter writer = new ArrivalTraceWriter(traceFile, false)) {
+            writer.write(2.0, 0, 1);
+            writer.write(1.0, 1, 0);
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotATrace() throws IOException {
+        final Path traceFile = Files.createTempFile("elevators", ".arrivals");
+        try {
+            Files.write(traceFile, "startingFloor,targetFloor,timestamp\n".getBytes("UTF-8"));
+            new ArrivalTraceReader(traceFile).close();
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.PickupRequest;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+public class HallCallCsvReaderTest extends AbstractTest {
+    @Test
+    public void testLogIsParsedLineByLine() throws IOException {
+        final Path csvFile = Files.createTempFile("elevators", ".csv");
+        try {
+            Files.write(csvFile, ("timestamp,startingFloor,targetFloor,car\r\n"
+                    + "1.5,0,7,A\r\n"
+                    + "\r\n"
+                    + " 2.25 , 9 , 1\n"
+                    + "3e1,-0,+4\n"
+                    + "123456789.0123456789,10,0").getBytes(StandardCharsets.US_ASCII));
+
+            try (HallCallCsvReader reader = new HallCallCsvReader(csvFile, 0, 10)) {
+                assertHallCall(reader.next(), 1.5, 0, 7);
+                assertHallCall(reader.next(), 2.25, 9, 1);
+                assertHallCall(reader.next(), 30.0, 0, 4);
+                assertHallCall(reader.next(), 123456789.0123456789, 10, 0);
+                Assert.assertFalse(reader.hasNext());
+                Assert.assertEquals(reader.getLineNumber(), 6L);
+            }
+        } finally {
+            Files.delete(csvFile);
+        }
+    }
+
+    @Test
+    public void testLargeLogIsStreamedIntoTheSimulation() throws IOException {
+        final Path csvFile = Files.createTempFile("elevators", ".csv");
+        try {
+            //  A few times bigger than the buffer, so lines get split across reads.
+            List<PickupRequest> expectedRequests = new ArrayList<>();
+            try (Writer writer = Files.newBufferedWriter(csvFile, StandardCharsets.US_ASCII)) {
+                Iterator<PickupRequest> arrivals =
+                        new RegularIntervalGenerator(0, 10, 20000.0, 42L).streamPickupRequests(0.5, 20000.0);
+                while (arrivals.hasNext()) {
+                    PickupRequest pickupRequest = arrivals.next();
+                    String timestamp = String.format("%.3f", pickupRequest.getTimestamp());
+                    writer.write(String.format("%s,%d,%d\n", timestamp, pickupRequest.getStartingFloor(),
+                            pickupRequest.getTargetFloor()));
+                    expectedRequests.add(new PickupRequest(pickupRequest.getStartingFloor(),
+                            pickupRequest.getTargetFloor() - pickupRequest.getStartingFloor(),
+                            Double.parseDouble(timestamp)));
+                }
+            }
+            Assert.assertTrue(Files.size(csvFile) > 2 * 65536);
+
+            try (HallCallCsvReader reader = new HallCallCsvReader(csvFile, 0, 10)) {
+                for (PickupRequest expectedRequest : expectedRequests) {
+                    assertHallCall(reader.next(), expectedRequest.getTimestamp(), expectedRequest.getStartingFloor(),
+                            expectedRequest.getTargetFloor());
+                }
+                Assert.assertFalse(reader.hasNext());
+            }
+
+            List<AbstractElevator> listElevators = new ArrayList<>();
+            listElevators.add(new OpportunisticElevator("test1"));
+            listElevators.add(new OpportunisticElevator("test2"));
+            try (HallCallCsvReader reader = new HallCallCsvReader(csvFile, listElevators)) {
+                Simulation simulation = new Simulation(listElevators, reader, null);
+                simulation.simulateUntil(1000.0, Simulation.TimeAdvance.NEXT_EVENT);
+                Assert.assertTrue(simulation.getFloorQueues().getWaitingCount() > 0);
+            }
+        } finally {
+            Files.delete(csvFile);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = ".*line 2: floor 11 is not served.*")
+    public void testFloorsAreValidatedAgainstTheElevators() throws IOException {
+        final Path csvFile = Files.createTempFile("elevators", ".csv");
+        try {
+            Files.write(csvFile, "1.0,0,7\n2.0,11,3\n".getBytes(StandardCharsets.US_ASCII));
+
+            List<AbstractElevator> listElevators = new ArrayList<>();
+            listElevators.add(new OpportunisticElevator("test1"));
+            try (HallCallCsvReader reader = new HallCallCsvReader(csvFile, listElevators)) {
+                reader.next();
+                reader.next();
+            }
+        } finally {
+            Files.delete(csvFile);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMalformedLine() throws IOException {
+        final Path csvFile = Files.createTempFile("elevators", ".csv");
+        try {
+            Files.write(csvFile, "1.0,0,7\n2.0;1;3\n".getBytes(StandardCharsets.US_ASCII));
+            try (HallCallCsvReader reader = new HallCallCsvReader(csvFile, 0, 10)) {
+                reader.next();
+                reader.next();
+            }
+        } finally {
+            Files.delete(csvFile);
+        }
+    }
+
+    private static void assertHallCall(final PickupRequest pickupRequest, final double timestamp,
+            final int startingFloor, final int targetFloor) {
+        Assert.assertEquals(pickupRequest.getTimestamp(), timestamp);
+        Assert.assertEquals(pickupRequest.getStartingFloor(), startingFloor);
+        Assert.assertEquals(pickupRequest.getTargetFloor(), targetFloor);
+    }
+}
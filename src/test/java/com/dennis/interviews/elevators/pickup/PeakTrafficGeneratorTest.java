@@ -0,0 +1,94 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.util.Iterator;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.PickupRequest;
+
+public class PeakTrafficGeneratorTest extends AbstractTest {
+    private static final double HOUR = 3600.0;
+
+    @Test
+    public void testArrivalsFollowTheTrafficProfile() {
+        PeakTrafficGenerator generator = createOfficeDay(42L);
+
+        //  Count the arrivals per hour, and how many go up from or down to the lobby.
+        int[] arrivalsPerHour = new int[24];
+        int[] upFromLobby = new int[24];
+        int[] downToLobby = new int[24];
+        double previousTimestamp = 0.0;
+        Iterator<PickupRequest> iterator = generator.streamPickupRequests();
+        while (iterator.hasNext()) {
+            PickupRequest pickupRequest = iterator.next();
+            Assert.assertTrue(pickupRequest.getTimestamp() >= previousTimestamp);
+            Assert.assertNotEquals(pickupRequest.getStartingFloor(), pickupRequest.getTargetFloor());
+            Assert.assertTrue((pickupRequest.getStartingFloor() >= 0) && (pickupRequest.getStartingFloor() <= 20));
+            Assert.assertTrue((pickupRequest.getTargetFloor() >= 0) && (pickupRequest.getTargetFloor() <= 20));
+            previousTimestamp = pickupRequest.getTimestamp();
+
+            int hour = (int) (pickupRequest.getTimestamp() / HOUR);
+            arrivalsPerHour[hour]++;
+            upFromLobby[hour] += (0 == pickupRequest.getStartingFloor()) ? 1 : 0;
+            downToLobby[hour] += (0 == pickupRequest.getTargetFloor()) ? 1 : 0;
+        }
+
+        //  The expected number of arrivals in each hour is the integral of the intensity over the hour (within 5
+        //  standard deviations of the Poisson count).
+        for (int hour = 0; hour < 24; hour++) {
+            double expected = 0.0;
+            for (int second = 0; second < HOUR; second++) {
+                expected += generator.getArrivalsPerSecond(hour * HOUR + second + 0.5);
+            }
+            Assert.assertEquals(arrivalsPerHour[hour], expected, 5.0 * Math.sqrt(expected) + 1.0);
+        }
+
+        //  Mornings are mostly up from the lobby, evenings mostly down to it.
+        Assert.assertTrue(upFromLobby[8] > 0.9 * arrivalsPerHour[8]);
+        Assert.assertTrue(downToLobby[17] > 0.9 * arrivalsPerHour[17]);
+        Assert.assertEquals(upFromLobby[12], downToLobby[12], 5.0 * Math.sqrt(arrivalsPerHour[12]));
+        Assert.assertTrue(arrivalsPerHour[8] > 10 * arrivalsPerHour[3]);
+    }
+
+    @Test
+    public void testSeededGeneratorsReplayTheSameRequests() {
+        PickupRequestGeneratorTest.assertSameRequests(createOfficeDay(7L).streamPickupRequests(),
+                createOfficeDay(7L).streamPickupRequests());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testNoTraffic() {
+        new PeakTrafficGenerator(0, 20, 0, 24 * HOUR, 0.0, 42L).streamPickupRequests();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Riders from floor 1 have no other floor to go to")
+    public void testOriginWithoutAnotherDestination() {
+        PeakTrafficGenerator generator = new PeakTrafficGenerator(0, 1, 0, HOUR, 0.0, 42L);
+        generator.addPeak(0.5 * HOUR, 0.1 * HOUR, 0.1, new double[] { 1.0, 1.0 }, new double[] { 0.0, 1.0 });
+    }
+
+    @Test
+    public void testTwoFloorsGoingBothWays() {
+        PeakTrafficGenerator generator = new PeakTrafficGenerator(0, 1, 0, HOUR, 0.01, 42L);
+        generator.addPeak(0.5 * HOUR, 0.1 * HOUR, 0.1, new double[] { 0.0, 1.0 }, new double[] { 1.0, 0.0 });
+
+        int numberOfRequests = 0;
+        for (Iterator<PickupRequest> iterator = generator.streamPickupRequests(); iterator.hasNext(); ) {
+            PickupRequest pickupRequest = iterator.next();
+            Assert.assertNotEquals(pickupRequest.getTargetFloor(), pickupRequest.getStartingFloor());
+            numberOfRequests++;
+        }
+        Assert.assertTrue(numberOfRequests > 0);
+    }
+
+    private static PeakTrafficGenerator createOfficeDay(final long seed) {
+        PeakTrafficGenerator generator = new PeakTrafficGenerator(0, 20, 0, 24 * HOUR, 0.005, seed);
+        generator.addUpPeak(8.5 * HOUR, 0.5 * HOUR, 0.5);
+        generator.addTwoWayPeak(12.5 * HOUR, 0.5 * HOUR, 0.3);
+        generator.addDownPeak(17.5 * HOUR, 0.5 * HOUR, 0.5);
+        return generator;
+    }
+}
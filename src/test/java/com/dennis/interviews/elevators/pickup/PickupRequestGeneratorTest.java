@@ -0,0 +1,62 @@
+package com.dennis.interviews.elevators.pickup;
+
+import java.util.Iterator;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.PickupRequest;
+
+public class PickupRequestGeneratorTest extends AbstractTest {
+    @Test
+    public void testStreamedRequestsArePoissonArrivalsInTimestampOrder() {
+        final double arrivalsPerSecond = 0.5;
+        final double experimentDurationInSeconds = 20000.0;
+        AbstractPickupRequestGenerator generator =
+                new RegularIntervalGenerator(0, 10, experimentDurationInSeconds, 42L);
+
+        Iterator<PickupRequest> iterator = generator.streamPickupRequests(arrivalsPerSecond,
+                experimentDurationInSeconds);
+        int count = 0;
+        double previousTimestamp = 0.0;
+        while (iterator.hasNext()) {
+            PickupRequest pickupRequest = iterator.next();
+            Assert.assertTrue(pickupRequest.getTimestamp() >= previousTimestamp);
+            Assert.assertTrue(pickupRequest.getTimestamp() < experimentDurationInSeconds);
+            Assert.assertNotEquals(pickupRequest.getStartingFloor(), pickupRequest.getTargetFloor());
+            previousTimestamp = pickupRequest.getTimestamp();
+            count++;
+        }
+
+        //  10,000 arrivals are expected, with a standard deviation of 100.
+        Assert.assertEquals(count, arrivalsPerSecond * experimentDurationInSeconds, 500.0);
+    }
+
+    @Test
+    public void testSeededGeneratorsReplayTheSameRequests() {
+        AbstractPickupRequestGenerator generator1 = new RegularIntervalGenerator(0, 10, 1000.0, 42L);
+        AbstractPickupRequestGenerator generator2 = new RegularIntervalGenerator(0, 10, 1000.0, 42L);
+        assertSameRequests(generator1.streamPickupRequests(0.1, 1000.0), generator2.streamPickupRequests(0.1, 1000.0));
+
+        //  Split generators are replayable too, and independent of their parent.
+        AbstractPickupRequestGenerator split1 = generator1.split();
+        AbstractPickupRequestGenerator split2 = generator2.split();
+        assertSameRequests(split1.streamPickupRequests(0.1, 1000.0), split2.streamPickupRequests(0.1, 1000.0));
+        Assert.assertNotEquals(split1.streamPickupRequests(0.1, 1000.0).next().getTimestamp(),
+                generator1.streamPickupRequests(0.1, 1000.0).next().getTimestamp());
+    }
+
+    static void assertSameRequests(final Iterator<PickupRequest> expected,
+            final Iterator<PickupRequest> actual) {
+        while (expected.hasNext()) {
+            Assert.assertTrue(actual.hasNext());
+            PickupRequest expectedRequest = expected.next();
+            PickupRequest actualRequest = actual.next();
+            Assert.assertEquals(actualRequest.getTimestamp(), expectedRequest.getTimestamp());
+            Assert.assertEquals(actualRequest.getStartingFloor(), expectedRequest.getStartingFloor());
+            Assert.assertEquals(actualRequest.getTargetFloor(), expectedRequest.getTargetFloor());
+        }
+        Assert.assertFalse(actual.hasNext());
+    }
+}
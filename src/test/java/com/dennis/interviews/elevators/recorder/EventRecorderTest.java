@@ -0,0 +1,135 @@
+package com.dennis.interviews.elevators.recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.AbstractTest;
+import com.dennis.interviews.elevators.PickupRequest;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+public class EventRecorderTest extends AbstractTest {
+    @Test
+    public void testFullBufferOverwritesOldestEvents() {
+        EventRecorder eventRecorder = new EventRecorder(3);
+        Assert.assertEquals(eventRecorder.getCapacity(), 4);
+        for (int counter = 0; counter < 6; counter++) {
+            eventRecorder.record(counter, counter % 2, EventType.TIME_INCREMENT, -counter, counter, 0.5, 1.0);
+        }
+        Assert.assertEquals(eventRecorder.size(), 4);
+
+        final List<String> events = new ArrayList<>();
+        Assert.assertEquals(eventRecorder.drain(new EventVisitor() {
+            @Override
+            public void visit(final EventRecord eventRecord) {
+                events.add(String.format("%.1f/%d/%d/%d", eventRecord.getTimestamp(), eventRecord.getElevatorId(),
+                        eventRecord.getOldValue(), eventRecord.getNewValue()));
+            }
+        }), 4);
+        Assert.assertEquals(events.toString(), "[2.0/0/-2/2, 3.0/1/-3/3, 4.0/0/-4/4, 5.0/1/-5/5]");
+        Assert.assertEquals(eventRecorder.size(), 0);
+        Assert.assertEquals(eventRecorder.getDroppedCount(), 0L);
+    }
+
+    @Test
+    public void testFailedDrainFallsBackToFlightRecorder() {
+        //  Every write to /dev/full fails (with ENOSPC).
+        final Path fullDevice = Paths.get("/dev/full");
+        if (!Files.isWritable(fullDevice)) {
+            throw new SkipException("/dev/full is not available on this platform");
+        }
+
+        EventRecorder eventRecorder = new EventRecorder(4);
+        try {
+            eventRecorder.startDrain(fullDevice);
+        } catch (IOException e) {
+            throw new SkipException("/dev/full can not be opened", e);
+        }
+        eventRecorder.record(0.0, 0, EventType.TIME_INCREMENT, 0, 0, 0.0, 1.0);
+
+        //  Wait for the drain thread to fail.
+        for (int counter = 0; (counter < 5000) && eventRecorder.isDraining(); counter++) {
+            LockSupport.parkNanos(1000000L);
+        }
+        Assert.assertFalse(eventRecorder.isDraining());
+        for (int counter = 1; counter < 10; counter++) {
+            eventRecorder.record(counter, 0, EventType.TIME_INCREMENT, 0, counter, 0.0, 1.0);
+        }
+        Assert.assertEquals(eventRecorder.getDroppedCount(), 0L);
+        Assert.assertEquals(eventRecorder.size(), 4);
+
+        final List<Integer> newValues = new ArrayList<>();
+        eventRecorder.drain(new EventVisitor() {
+            @Override
+            public void visit(final EventRecord eventRecord) {
+                newValues.add(eventRecord.getNewValue());
+            }
+        });
+        Assert.assertEquals(newValues.toString(), "[6, 7, 8, 9]");
+
+        try {
+            eventRecorder.close();
+            Assert.fail("The drain failure was not reported");
+        } catch (IOException e) {
+            //  Expected, the write that failed.
+        }
+    }
+
+    @Test
+    public void testSimulationTracedToFile() throws IOException {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        listElevators.add(new OpportunisticElevator("test1"));
+        listElevators.add(new OpportunisticElevator("test2"));
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(2, 3, 0.0));
+        Simulation simulation = new Simulation(listElevators, sortedRequests);
+        Assert.assertEquals(listElevators.get(1).getId(), 1);
+
+        final Path traceFile = Files.createTempFile("elevators", ".trace");
+        try {
+            EventRecorder eventRecorder = new EventRecorder(1 << 16);
+            eventRecorder.startDrain(traceFile);
+            simulation.setEventRecorder(eventRecorder);
+            listElevators.get(0).setTargetFloor(2.0);
+            simulation.simulate();
+            eventRecorder.close();
+            Assert.assertEquals(eventRecorder.getDroppedCount(), 0L);
+            Assert.assertEquals(Files.size(traceFile) % EventRecord.SIZE_IN_BYTES, 0L);
+
+            final List<String> stateChanges = new ArrayList<>();
+            final int[] timeIncrements = new int[2];
+            final long count = EventRecorder.readTrace(traceFile, new EventVisitor() {
+                @Override
+                public void visit(final EventRecord eventRecord) {
+                    if (EventType.STATE_CHANGE == eventRecord.getType()) {
+                        stateChanges.add(String.format("%d:%s->%s", eventRecord.getElevatorId(),
+                                AbstractElevator.State.values()[eventRecord.getOldValue()],
+                                AbstractElevator.State.values()[eventRecord.getNewValue()]));
+                    } else if (EventType.TIME_INCREMENT == eventRecord.getType()) {
+                        timeIncrements[eventRecord.getElevatorId()]++;
+                    }
+                }
+            });
+
+            Assert.assertEquals(count, Files.size(traceFile) / EventRecord.SIZE_IN_BYTES);
+            //  Every elevator is advanced once per iteration, no matter how many states it goes through.
+            Assert.assertEquals(timeIncrements[1], simulation.getIterationCount());
+            Assert.assertEquals(timeIncrements[0], simulation.getIterationCount());
+            Assert.assertEquals(stateChanges.get(0), "0:ASCENDING->LOADING");
+            Assert.assertEquals(stateChanges.get(stateChanges.size() - 1), "0:LOADING->IDLE");
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.dennis.interviews.elevators.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractElevator;
+import com.dennis.interviews.elevators.AbstractElevatorScheduler;
+import com.dennis.interviews.elevators.ActiveFloorIndex;
+import com.dennis.interviews.elevators.PickupRequest;
+import com.dennis.interviews.elevators.Simulation;
+import com.dennis.interviews.elevators.elevator.OpportunisticElevator;
+
+public class LatencyOptimizingSchedulerTest extends AbstractSchedulerTest {
+    @Test
+    public void testOptimalInsteadOfGreedyAssignment() {
+        //  Greedy sends the elevator on floor 5 to floor 4 and the one on floor 0 to floor 6 (7 floors in total),
+        //  the optimal assignment is 5 -> 6 and 0 -> 4 (5 floors in total).
+        Simulation greedySimulation = createSimulation(new GreedyMinimizeEmptyElevatorScheduler());
+        greedySimulation.incrementTime(1.0);
+        Assert.assertEquals(greedySimulation.getElevators().get(0).getTargetFloor(), 4.0, DELTA_ALLOWED);
+        Assert.assertEquals(greedySimulation.getElevators().get(1).getTargetFloor(), 6.0, DELTA_ALLOWED);
+
+        Simulation optimalSimulation = createSimulation(new LatencyOptimizingScheduler());
+        optimalSimulation.incrementTime(1.0);
+        Assert.assertEquals(optimalSimulation.getElevators().get(0).getTargetFloor(), 6.0, DELTA_ALLOWED);
+        Assert.assertEquals(optimalSimulation.getElevators().get(1).getTargetFloor(), 4.0, DELTA_ALLOWED);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(7L);
+        LatencyOptimizingScheduler scheduler = new LatencyOptimizingScheduler();
+
+        //  Both more floors than elevators and more elevators than floors, reusing the same scheduler.
+        for (int trial = 0; trial < 50; trial++) {
+            final int numberOfCars = 1 + random.nextInt(6);
+            final int numberOfRiders = 1 + random.nextInt(6);
+            List<AbstractElevator> listElevators = new ArrayList<>();
+            for (int counter = 0; counter < numberOfCars; counter++) {
+                AbstractElevator elevator = new OpportunisticElevator("test" + counter);
+                elevator.setCurrentPosition(random.nextInt(11));
+                listElevators.add(elevator);
+            }
+            ActiveFloorIndex activeFloors = new ActiveFloorIndex();
+            for (int counter = 0; counter < numberOfRiders; counter++) {
+                activeFloors.add(random.nextInt(11));
+            }
+            List<Integer> listActiveFloors = new ArrayList<>();
+            for (int floor = activeFloors.first(); ActiveFloorIndex.NONE != floor;
+                    floor = activeFloors.next(floor + 1)) {
+                listActiveFloors.add(floor);
+            }
+            final int numberOfFloors = listActiveFloors.size();
+
+            scheduler.scheduleIdleElevators(listElevators, activeFloors);
+
+            double totalDistance = 0.0;
+            int numberDispatched = 0;
+            for (AbstractElevator elevator : listElevators) {
+                if (AbstractElevator.State.IDLE != elevator.getState()) {
+                    totalDistance += Math.abs(elevator.getTargetFloor() - elevator.getCurrentPosition());
+                    numberDispatched++;
+                }
+            }
+
+            Assert.assertEquals(numberDispatched, Math.min(numberOfCars, numberOfFloors));
+            Assert.assertEquals(totalDistance,
+                    bruteForce(listElevators, listActiveFloors, 0, new boolean[numberOfFloors]), DELTA_ALLOWED);
+        }
+    }
+
+    @Test
+    public void testLowerWaitTimesThanGreedy() {
+        //  Riders show up on four floors at once while four elevators are idle.  Greedy dispatches the elevators in
+        //  list order (10 -> 9, 0 -> 1, 20 -> 19, 5 -> 12, i.e. 10 floors in total), the optimal assignment is
+        //  10 -> 12, 0 -> 1, 20 -> 19, 5 -> 9 (8 floors in total).
+        final double greedyWaitTime = simulateRushAndGetMeanWaitTime(new GreedyMinimizeEmptyElevatorScheduler());
+        final double optimalWaitTime = simulateRushAndGetMeanWaitTime(new LatencyOptimizingScheduler());
+        Assert.assertTrue(optimalWaitTime < greedyWaitTime,
+                String.format("Optimal wait time %f is not lower than greedy wait time %f",
+                        optimalWaitTime, greedyWaitTime));
+    }
+
+    private static Simulation createSimulation(final AbstractElevatorScheduler scheduler) {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        AbstractElevator testElevator1 = new OpportunisticElevator("test1");
+        testElevator1.setCurrentPosition(5.0);
+        listElevators.add(testElevator1);
+        listElevators.add(new OpportunisticElevator("test2"));
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(4, 1, 0.0));
+        sortedRequests.add(new PickupRequest(6, 1, 0.0));
+
+        return new Simulation(listElevators, sortedRequests, scheduler);
+    }
+
+    private static double simulateRushAndGetMeanWaitTime(final AbstractElevatorScheduler scheduler) {
+        List<AbstractElevator> listElevators = new ArrayList<>();
+        for (double position : new double[] { 10.0, 0.0, 20.0, 5.0 }) {
+            AbstractElevator elevator = new OpportunisticElevator("test" + position);
+            elevator.setMaxFloor(20.0);
+            elevator.setCurrentPosition(position);
+            listElevators.add(elevator);
+        }
+
+        List<PickupRequest> sortedRequests = new ArrayList<>();
+        sortedRequests.add(new PickupRequest(1, 1, 0.0));
+        sortedRequests.add(new PickupRequest(9, 1, 0.0));
+        sortedRequests.add(new PickupRequest(12, -1, 0.0));
+        sortedRequests.add(new PickupRequest(19, -1, 0.0));
+
+        Simulation simulation = new Simulation(listElevators, sortedRequests, scheduler);
+        simulation.setUpdatePickupRequests(true);
+        simulation.simulate();
+
+        double totalWaitTime = 0.0;
+        for (PickupRequest pickupRequest : sortedRequests) {
+            Assert.assertTrue(pickupRequest.getTimestampPickup() > 0.0);
+            totalWaitTime += pickupRequest.getTimestampPickup() - pickupRequest.getTimestamp();
+        }
+
+        return totalWaitTime / sortedRequests.size();
+    }
+
+    private static double bruteForce(final List<AbstractElevator> listElevators, final List<Integer> activeFloors,
+            final int car, final boolean[] usedFloors) {
+        if ((car == listElevators.size()) || (0 == countUnused(usedFloors))) {
+            return 0.0;
+        }
+
+        final int carsLeft = listElevators.size() - car;
+        double best = Double.POSITIVE_INFINITY;
+        //  Elevators may only be left out when there are more elevators than floors.
+        if (carsLeft > countUnused(usedFloors)) {
+            best = bruteForce(listElevators, activeFloors, car + 1, usedFloors);
+        }
+        for (int floor = 0; floor < activeFloors.size(); floor++) {
+            if (usedFloors[floor]) {
+                continue;
+            }
+            usedFloors[floor] = true;
+            best = Math.min(best, Math.abs(listElevators.get(car).getCurrentPosition() - activeFloors.get(floor))
+                    + bruteForce(listElevators, activeFloors, car + 1, usedFloors));
+            usedFloors[floor] = false;
+        }
+
+        return best;
+    }
+
+    private static int countUnused(final boolean[] usedFloors) {
+        int unused = 0;
+        for (boolean used : usedFloors) {
+            if (!used) {
+                unused++;
+            }
+        }
+
+        return unused;
+    }
+}
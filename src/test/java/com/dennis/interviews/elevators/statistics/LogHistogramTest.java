@@ -0,0 +1,43 @@
+package com.dennis.interviews.elevators.statistics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.dennis.interviews.elevators.AbstractTest;
+
+public class LogHistogramTest extends AbstractTest {
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        LogHistogram histogram = new LogHistogram(0.01);
+        for (int counter = 1; counter <= 100000; counter++) {
+            histogram.record(counter / 10.0);
+        }
+
+        Assert.assertEquals(histogram.getTotalCount(), 100000L);
+        Assert.assertEquals(histogram.getMean(), 5000.05, DELTA_ALLOWED);
+        Assert.assertEquals(histogram.getMax(), 10000.0, DELTA_ALLOWED);
+        Assert.assertEquals(histogram.getValueAtPercentile(50.0), 5000.0, 5000.0 * 0.01);
+        Assert.assertEquals(histogram.getValueAtPercentile(95.0), 9500.0, 9500.0 * 0.01);
+        Assert.assertEquals(histogram.getValueAtPercentile(99.0), 9900.0, 9900.0 * 0.01);
+        Assert.assertTrue(histogram.getValueAtPercentile(100.0) <= histogram.getMax());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram(1.0);
+        histogram.record(3.0);
+        histogram.record(5.0);
+        histogram.record(-2.0);
+
+        Assert.assertEquals(histogram.getValueAtPercentile(0.0), 0.5, DELTA_ALLOWED);
+        Assert.assertEquals(histogram.getValueAtPercentile(50.0), 3.5, DELTA_ALLOWED);
+        Assert.assertEquals(histogram.getValueAtPercentile(100.0), 5.0, DELTA_ALLOWED);
+
+        LogHistogram other = new LogHistogram(1.0);
+        other.record(1000.0);
+        histogram.add(other);
+        Assert.assertEquals(histogram.getTotalCount(), 4L);
+        Assert.assertEquals(histogram.getMax(), 1000.0, DELTA_ALLOWED);
+        Assert.assertTrue(Double.isNaN(new LogHistogram(1.0).getMean()));
+    }
+}